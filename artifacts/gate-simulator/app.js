@@ -5,12 +5,15 @@ const uuidv4 = require('uuid/v4');
 const data = JSON.parse(fs.readFileSync('data.json', 'UTF-8'));
 console.log(data);
 
+// issued operation ids by card holder, lets parallel tests find their own DB rows
+const journal = new Map();
+
 const server = express();
 server.use(express.json());
 
 server.post(['/payment', '/credit'], (req, res) => {
   console.log(`Incoming request: ${req.path} ${JSON.stringify(req.body)}`);
-  const {body: {number}} = req;
+  const {body: {number, holder}} = req;
 
   const [item] = data.filter(o => o.number === number);
   if (item === undefined) {
@@ -18,11 +21,22 @@ server.post(['/payment', '/credit'], (req, res) => {
     return;
   }
 
+  const id = uuidv4();
+  if (holder !== undefined) {
+    const operations = journal.get(holder) || [];
+    operations.push({id, status: item.status, path: req.path});
+    journal.set(holder, operations);
+  }
+
   res.send({
-    id: uuidv4(),
+    id,
     status: item.status,
   });
 });
 
+server.get('/transactions', (req, res) => {
+  res.send(journal.get(req.query.holder) || []);
+});
+
 // get port from environment variable or just use 9999
 server.listen(process.env.PORT || 9999);
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import com.google.gson.Gson;
+import data.ApiHelper;
+import data.Card;
+import data.CardFile;
+import data.CardRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardBenchmark {
+    private final Gson gson = new Gson();
+    private Card card;
+    private String json;
+    private String csvLine;
+
+    @Setup
+    public void setUp() {
+        card = construct();
+        json = gson.toJson(card);
+        csvLine = "4444 4444 4444 4441,01,27,Ivan Petrov,123,APPROVED";
+    }
+
+    @Benchmark
+    public Card construct() {
+        Card card = new Card();
+        card.setNumber("4444 4444 4444 4441");
+        card.setMonth("01");
+        card.setYear("27");
+        card.setOwner("Ivan Petrov");
+        card.setCvc("123");
+        return card;
+    }
+
+    // Тело запроса в API приложения
+    @Benchmark
+    public String toRequestJson() {
+        return gson.toJson(ApiHelper.toRequestBody(card));
+    }
+
+    @Benchmark
+    public Card fromJson() {
+        return gson.fromJson(json, Card.class);
+    }
+
+    @Benchmark
+    public CardRecord parseCsvLine() {
+        return CardFile.parseCsvLine(csvLine);
+    }
+
+    @Benchmark
+    public int cardHashCode() {
+        return card.hashCode();
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import data.CardGenerator;
+import data.CardRecord;
+import data.DataGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataGeneratorBenchmark {
+    private CardGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new CardGenerator(42, 0.8, 0.15, 0.1);
+    }
+
+    @Benchmark
+    public String correctYear() {
+        return DataGenerator.getCorrectYear();
+    }
+
+    @Benchmark
+    public String randomCvc() {
+        return DataGenerator.getRandomCvc();
+    }
+
+    @Benchmark
+    public String uniqueOwner() {
+        return DataGenerator.getUniqueOwner();
+    }
+
+    // Генерация в буферы, как при записи файла
+    @Benchmark
+    public void nextCard() {
+        generator.next();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void bulkCards(Blackhole blackhole) {
+        generator.stream(10_000).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public CardRecord cardRecord() {
+        generator.next();
+        return generator.toRecord();
+    }
+}
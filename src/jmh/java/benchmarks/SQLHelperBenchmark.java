@@ -0,0 +1,64 @@
+package benchmarks;
+
+import data.EmbeddedDb;
+import data.SQLHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Запросы SQLHelper к встроенной H2: через пул и так, как раньше, с новым соединением на каждый запрос
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SQLHelperBenchmark {
+    private static final String url = "jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    private static final String latestPaymentStatus = "select status from payment_entity order by created desc limit 1;";
+
+    @Param({"10000"})
+    public int rows;
+
+    private String transactionId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // db.url читается при загрузке SQLHelper, поэтому задаётся до первого обращения к нему
+        System.setProperty("db.url", url);
+        EmbeddedDb.start(url, "app", "pass");
+        try (Connection connection = DriverManager.getConnection(url, "app", "pass")) {
+            try (PreparedStatement payment = connection.prepareStatement("insert into payment_entity values (?, 4500000, ?, ?, ?)")) {
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < rows; i++) {
+                    transactionId = UUID.randomUUID().toString();
+                    payment.setString(1, UUID.randomUUID().toString());
+                    payment.setTimestamp(2, new Timestamp(now - i * 1000L));
+                    payment.setString(3, i % 5 == 0 ? "DECLINED" : "APPROVED");
+                    payment.setString(4, transactionId);
+                    payment.addBatch();
+                }
+                payment.executeBatch();
+            }
+        }
+    }
+
+    @Benchmark
+    public String pooledLatestStatus() throws SQLException {
+        return SQLHelper.findPaymentStatus();
+    }
+
+    @Benchmark
+    public String pooledStatusById() throws SQLException {
+        return SQLHelper.findPayment(transactionId).getStatus();
+    }
+
+    @Benchmark
+    public String unpooledLatestStatus() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "app", "pass");
+             PreparedStatement statement = connection.prepareStatement(latestPaymentStatus);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getString("status");
+        }
+    }
+}
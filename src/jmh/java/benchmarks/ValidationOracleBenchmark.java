@@ -0,0 +1,33 @@
+package benchmarks;
+
+import data.Card;
+import data.CardFuzzer;
+import data.ValidationOracle;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ValidationOracleBenchmark {
+    private final ValidationOracle oracle = new ValidationOracle();
+    private Card[] cards;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CardFuzzer fuzzer = new CardFuzzer(1, 0.3, YearMonth.now(), "Ivan Petrov");
+        cards = new Card[4096];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = fuzzer.next();
+        }
+    }
+
+    @Benchmark
+    public int classify() {
+        next = (next + 1) & (cards.length - 1);
+        return oracle.classify(cards[next]);
+    }
+}
@@ -0,0 +1,64 @@
+package data;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+
+// Отправка формы напрямую в API приложения, без браузера
+public class ApiHelper {
+
+    public static final String sutUrl = System.getProperty("sut.url", "http://localhost:8080");
+    public static final String paymentPath = "/api/v1/pay";
+    public static final String creditPath = "/api/v1/credit";
+
+    // Переиспользуемый HTTP-клиент не потокобезопасен, поэтому у каждого потока (параллельный прогон) свой
+    private static final ThreadLocal<RequestSpecification> requestSpec = ThreadLocal.withInitial(() -> new RequestSpecBuilder()
+            .setBaseUri(sutUrl)
+            .setContentType(ContentType.JSON)
+            .setAccept(ContentType.JSON)
+            .setConfig(RestAssuredConfig.config()
+                    .httpClient(HttpClientConfig.httpClientConfig().reuseHttpClientInstance()))
+            .build());
+
+    public static Response sendPayment(Card card) {
+        return send(paymentPath, card);
+    }
+
+    public static Response sendCredit(Card card) {
+        return send(creditPath, card);
+    }
+
+    public static String getPaymentStatus(Card card) {
+        return sendPayment(card).then().statusCode(200).extract().path("status");
+    }
+
+    public static String getCreditStatus(Card card) {
+        return sendCredit(card).then().statusCode(200).extract().path("status");
+    }
+
+    private static Response send(String path, Card card) {
+        return given()
+                .spec(requestSpec.get())
+                .body(toRequestBody(card))
+                .when()
+                .post(path);
+    }
+
+    public static Map<String, String> toRequestBody(Card card) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("number", card.getNumber());
+        body.put("month", card.getMonth());
+        body.put("year", card.getYear());
+        body.put("holder", card.getOwner());
+        body.put("cvc", card.getCvc());
+        return body;
+    }
+}
@@ -0,0 +1,215 @@
+package data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Файл сгенерированных карт: CSV (number,month,year,owner,cvc,status) или компактный бинарный формат (.bin).
+// Один и тот же файл читают симулятор шлюза (номер и статус) и нагрузочный прогон (карты целиком).
+public class CardFile {
+    private static final int MAGIC = 0x43415244;
+    private static final String header = "number,month,year,owner,cvc,status";
+    private static final int bufferSize = 1 << 16;
+
+    public interface StatusConsumer {
+        void accept(long digits, int length, byte status);
+    }
+
+    public static boolean isBinary(Path path) {
+        return path.toString().endsWith(".bin");
+    }
+
+    public static void write(Path path, CardGenerator generator, long count) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path), bufferSize)) {
+            if (isBinary(path)) {
+                writeBinary(new DataOutputStream(file), generator, count);
+            } else {
+                writeCsv(file, generator, count);
+            }
+        }
+    }
+
+    private static void writeCsv(OutputStream out, CardGenerator generator, long count) throws IOException {
+        out.write((header + "\n").getBytes(StandardCharsets.US_ASCII));
+        for (long i = 0; i < count; i++) {
+            generator.next();
+            out.write(generator.number);
+            out.write(',');
+            out.write(generator.month, 0, generator.monthLength);
+            out.write(',');
+            out.write(generator.year, 0, generator.yearLength);
+            out.write(',');
+            generator.writeOwner(out);
+            out.write(',');
+            out.write(generator.cvc, 0, generator.cvcLength);
+            out.write(',');
+            out.write(CardGenerator.statusNames[generator.status].getBytes(StandardCharsets.US_ASCII));
+            out.write('\n');
+        }
+    }
+
+    // Запись: номер (long, 16 цифр), статус, затем месяц, год, cvc и владелец с длиной в первом байте
+    private static void writeBinary(DataOutputStream out, CardGenerator generator, long count) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(count);
+        ByteArrayOutputStream owner = new ByteArrayOutputStream(64);
+        for (long i = 0; i < count; i++) {
+            generator.next();
+            long digits = 0;
+            for (byte b : generator.number) {
+                if (b != ' ') {
+                    digits = digits * 10 + (b - '0');
+                }
+            }
+            out.writeLong(digits);
+            out.writeByte(generator.status);
+            out.writeByte(generator.monthLength);
+            out.write(generator.month, 0, generator.monthLength);
+            out.writeByte(generator.yearLength);
+            out.write(generator.year, 0, generator.yearLength);
+            out.writeByte(generator.cvcLength);
+            out.write(generator.cvc, 0, generator.cvcLength);
+            owner.reset();
+            generator.writeOwner(owner);
+            out.writeByte(owner.size());
+            owner.writeTo(out);
+        }
+    }
+
+    public static Stream<CardRecord> read(Path path) throws IOException {
+        if (isBinary(path)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), bufferSize));
+            if (in.readInt() != MAGIC) {
+                in.close();
+                throw new IOException("Не файл карт: " + path);
+            }
+            long count = in.readLong();
+            Spliterator<CardRecord> spliterator = new Spliterators.AbstractSpliterator<CardRecord>(count, Spliterator.ORDERED | Spliterator.SIZED) {
+                private long left = count;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super CardRecord> action) {
+                    if (left == 0) {
+                        return false;
+                    }
+                    left--;
+                    try {
+                        action.accept(readBinaryRecord(in));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return true;
+                }
+            };
+            return StreamSupport.stream(spliterator, false).onClose(() -> closeUnchecked(in));
+        }
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        return reader.lines()
+                .skip(1)
+                .map(CardFile::parseCsvLine)
+                .onClose(() -> closeUnchecked(reader));
+    }
+
+    public static CardRecord parseCsvLine(String line) {
+        String[] fields = line.split(",", -1);
+        Card card = new Card();
+        card.setNumber(fields[0]);
+        card.setMonth(fields[1]);
+        card.setYear(fields[2]);
+        card.setOwner(fields[3]);
+        card.setCvc(fields[4]);
+        return new CardRecord(card, fields[5]);
+    }
+
+    // Только номер и статус, без создания строк: для заполнения таблицы карт шлюза миллионами записей
+    public static void forEachStatus(Path path, StatusConsumer consumer) throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), bufferSize)) {
+            if (isBinary(path)) {
+                DataInputStream in = new DataInputStream(file);
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Не файл карт: " + path);
+                }
+                long count = in.readLong();
+                for (long i = 0; i < count; i++) {
+                    long digits = in.readLong();
+                    byte status = in.readByte();
+                    for (int field = 0; field < 4; field++) {
+                        in.skipBytes(in.readUnsignedByte());
+                    }
+                    consumer.accept(digits, 16, status);
+                }
+            } else {
+                forEachCsvStatus(file, consumer);
+            }
+        }
+    }
+
+    private static void forEachCsvStatus(InputStream in, StatusConsumer consumer) throws IOException {
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            // заголовок
+        }
+        while (true) {
+            long digits = 0;
+            int length = 0;
+            while ((b = in.read()) != -1 && b != ',') {
+                if (b >= '0' && b <= '9') {
+                    digits = digits * 10 + (b - '0');
+                    length++;
+                }
+            }
+            if (b == -1) {
+                return;
+            }
+            // статус - последнее поле строки, достаточно первой буквы после последней запятой
+            int statusChar = 0;
+            boolean afterComma = false;
+            while ((b = in.read()) != -1 && b != '\n') {
+                if (b == ',') {
+                    afterComma = true;
+                } else if (afterComma) {
+                    statusChar = b;
+                    afterComma = false;
+                }
+            }
+            byte status = statusChar == 'A' ? CardGenerator.APPROVED : statusChar == 'D' ? CardGenerator.DECLINED : CardGenerator.UNKNOWN;
+            consumer.accept(digits, length, status);
+        }
+    }
+
+    private static CardRecord readBinaryRecord(DataInputStream in) throws IOException {
+        long digits = in.readLong();
+        byte status = in.readByte();
+        String value = String.format("%016d", digits);
+        Card card = new Card();
+        card.setNumber(value.substring(0, 4) + " " + value.substring(4, 8) + " " + value.substring(8, 12) + " " + value.substring(12));
+        card.setMonth(readString(in));
+        card.setYear(readString(in));
+        card.setCvc(readString(in));
+        card.setOwner(readString(in));
+        return new CardRecord(card, CardGenerator.statusNames[status]);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void closeUnchecked(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
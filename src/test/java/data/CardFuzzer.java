@@ -0,0 +1,96 @@
+package data;
+
+import java.time.YearMonth;
+import java.util.SplittableRandom;
+
+// Воспроизводимые входы для формы: валидная карта, у которой с заданной вероятностью портится каждое поле -
+// граничными значениями, случайными цифрами или строками из латиницы, кириллицы, цифр и спецсимволов
+public class CardFuzzer {
+    private static final String latin = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String cyrillic = "абвгдеёжзийклмнопрстуфхцчшщъыьэюяАБВГДЕЁЖЗИЙКЛМНОПРСТУФХЦЧШЩЪЫЬЭЮЯ";
+    private static final String digits = "0123456789";
+    private static final String symbols = " -_.,'\"!@#$%^&*()№;:?/\\|<>";
+    private static final String[] alphabets = {latin, cyrillic, digits, symbols, latin + " -", latin + digits + symbols};
+
+    private final SplittableRandom random;
+    private final double mutationRate;
+    private final int currentYear;
+    private final int currentMonth;
+    private final String validOwner;
+
+    // validOwner - владелец непорченых карт: если форма всё же отправит операцию, тест найдёт и удалит её по владельцу.
+    // Должен проходить проверку формы (латиница), иначе у непорченых карт ошибка владельца, см. DataGenerator.getUniqueOwner
+    public CardFuzzer(long seed, double mutationRate, YearMonth now, String validOwner) {
+        this.random = new SplittableRandom(seed);
+        this.mutationRate = mutationRate;
+        this.currentYear = now.getYear() % 100;
+        this.currentMonth = now.getMonthValue();
+        this.validOwner = validOwner;
+    }
+
+    public Card next() {
+        Card card = new Card();
+        card.setNumber(mutate() ? digitsOrText(19) : "4444 4444 4444 4441");
+        card.setMonth(mutate() ? month() : "12");
+        card.setYear(mutate() ? year() : twoDigits((currentYear + 1) % 100));
+        card.setOwner(mutate() ? owner() : validOwner);
+        card.setCvc(mutate() ? digitsOrText(4) : "123");
+        return card;
+    }
+
+    private boolean mutate() {
+        return random.nextDouble() < mutationRate;
+    }
+
+    private String month() {
+        switch (random.nextInt(4)) {
+            case 0:
+                return twoDigits(new int[]{0, 1, 12, 13, currentMonth - 1, currentMonth}[random.nextInt(6)]);
+            case 1:
+                return twoDigits(random.nextInt(100));
+            default:
+                return digitsOrText(3);
+        }
+    }
+
+    private String year() {
+        switch (random.nextInt(4)) {
+            case 0:
+                int[] edges = {currentYear - 1, currentYear, currentYear + 5, currentYear + 6};
+                return twoDigits(Math.floorMod(edges[random.nextInt(edges.length)], 100));
+            case 1:
+                return twoDigits(random.nextInt(100));
+            default:
+                return digitsOrText(3);
+        }
+    }
+
+    private String owner() {
+        switch (random.nextInt(3)) {
+            case 0:
+                return new String[]{"", " ", "Ivan", "Ivan-Petrov", "Ivan  Petrov", " Ivan", "Ivan-"}[random.nextInt(7)];
+            default:
+                return text(alphabets[random.nextInt(alphabets.length)], random.nextInt(25));
+        }
+    }
+
+    // Чаще цифры разной длины (в том числе длиннее маски), реже произвольный текст
+    private String digitsOrText(int maxLength) {
+        if (random.nextInt(4) == 0) {
+            return text(alphabets[random.nextInt(alphabets.length)], random.nextInt(maxLength + 2));
+        }
+        return text(digits, random.nextInt(maxLength + 2));
+    }
+
+    private String text(String alphabet, int length) {
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            result.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return result.toString();
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+}
@@ -0,0 +1,241 @@
+package data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Воспроизводимый генератор карт: одинаковый seed даёт одинаковую последовательность.
+// Номера проходят проверку Луна, доля APPROVED/DECLINED/UNKNOWN и доля карт с невалидным полем настраиваются.
+// Поля пишутся в переиспользуемые байтовые буферы, поэтому запись в файл не создаёт объектов на каждую карту.
+public class CardGenerator {
+    public static final byte UNKNOWN = 0;
+    public static final byte APPROVED = 1;
+    public static final byte DECLINED = 2;
+    public static final String[] statusNames = {"UNKNOWN", "APPROVED", "DECLINED"};
+
+    private static final byte[][] firstNames = ascii("James", "Mary", "Robert", "Patricia", "John", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Charles", "Karen", "Ivan", "Olga", "Petr", "Anna");
+    private static final byte[][] lastNames = ascii("Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Wilson", "Anderson", "Taylor", "Thomas", "Moore", "Martin", "Jackson", "White",
+            "Ivanov", "Petrova", "Sidorov", "Smirnova");
+    private static final byte[][] invalidOwners = utf8("", "Алёна Цой", "Иван Петров", "0801№!", "12345", "John_Smith", "@#$%");
+    private static final byte[] bin = ascii("4444")[0];
+    // 11 цифр между BIN и контрольной цифрой. Шаг взаимно прост с 10^11, поэтому номера не повторяются
+    // первые 10^11 карт, а соседние карты получают непохожие номера
+    private static final long serialSpace = 100_000_000_000L;
+    private static final long serialStride = 25_214_903_917L;
+
+    private final SplittableRandom random;
+    private final double approvedShare;
+    private final double declinedShare;
+    private final double invalidShare;
+    private final int currentYear;
+    private long serial;
+
+    // Буферы текущей карты
+    final byte[] number = new byte[19];
+    final byte[] month = new byte[2];
+    int monthLength;
+    final byte[] year = new byte[2];
+    int yearLength;
+    final byte[] cvc = new byte[3];
+    int cvcLength;
+    byte[] firstName;
+    byte[] lastName;
+    byte[] owner;
+    byte status;
+    private final int[] digits = new int[16];
+
+    public CardGenerator(long seed, double approvedShare, double declinedShare, double invalidShare) {
+        this(seed, approvedShare, declinedShare, invalidShare, LocalDate.now().getYear() % 100);
+    }
+
+    public CardGenerator(long seed, double approvedShare, double declinedShare, double invalidShare, int currentYear) {
+        this.random = new SplittableRandom(seed);
+        this.approvedShare = approvedShare;
+        this.declinedShare = declinedShare;
+        this.invalidShare = invalidShare;
+        this.currentYear = currentYear;
+        this.serial = Math.floorMod(seed * 0x9E3779B97F4A7C15L, serialSpace);
+    }
+
+    public static CardGenerator fromSystemProperties() {
+        return new CardGenerator(
+                Long.getLong("cards.seed", 42),
+                Double.parseDouble(System.getProperty("cards.approvedShare", "0.8")),
+                Double.parseDouble(System.getProperty("cards.declinedShare", "0.15")),
+                Double.parseDouble(System.getProperty("cards.invalidShare", "0")),
+                Integer.getInteger("cards.year", LocalDate.now().getYear() % 100));
+    }
+
+    public static void main(String[] args) throws IOException {
+        long count = Long.getLong("cards.count", 1_000_000);
+        Path out = Paths.get(System.getProperty("cards.out", "build/cards/cards.csv"));
+        long start = System.nanoTime();
+        CardFile.write(out, fromSystemProperties(), count);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d карт записано в %s за %.1f с (%.0f карт/с)%n", count, out, seconds, count / seconds);
+    }
+
+    public void next() {
+        double roll = random.nextDouble();
+        status = roll < approvedShare ? APPROVED : roll < approvedShare + declinedShare ? DECLINED : UNKNOWN;
+        nextNumber();
+        twoDigits(month, 1 + random.nextInt(12));
+        monthLength = 2;
+        twoDigits(year, (currentYear + 1 + random.nextInt(5)) % 100);
+        yearLength = 2;
+        cvc[0] = (byte) ('0' + random.nextInt(10));
+        cvc[1] = (byte) ('0' + random.nextInt(10));
+        cvc[2] = (byte) ('0' + random.nextInt(10));
+        cvcLength = 3;
+        firstName = firstNames[random.nextInt(firstNames.length)];
+        lastName = lastNames[random.nextInt(lastNames.length)];
+        owner = null;
+        if (invalidShare > 0 && random.nextDouble() < invalidShare) {
+            spoilOneField();
+        }
+    }
+
+    public Card toCard() {
+        Card card = new Card();
+        card.setNumber(new String(number, StandardCharsets.US_ASCII));
+        card.setMonth(new String(month, 0, monthLength, StandardCharsets.US_ASCII));
+        card.setYear(new String(year, 0, yearLength, StandardCharsets.US_ASCII));
+        card.setOwner(owner != null ? new String(owner, StandardCharsets.UTF_8)
+                : new String(firstName, StandardCharsets.US_ASCII) + " " + new String(lastName, StandardCharsets.US_ASCII));
+        card.setCvc(new String(cvc, 0, cvcLength, StandardCharsets.US_ASCII));
+        return card;
+    }
+
+    public CardRecord toRecord() {
+        return new CardRecord(toCard(), statusNames[status]);
+    }
+
+    public Stream<CardRecord> stream(long count) {
+        Spliterator<CardRecord> spliterator = new Spliterators.AbstractSpliterator<CardRecord>(count, Spliterator.ORDERED | Spliterator.SIZED) {
+            private long left = count;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super CardRecord> action) {
+                if (left == 0) {
+                    return false;
+                }
+                left--;
+                next();
+                action.accept(toRecord());
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    void writeOwner(OutputStream out) throws IOException {
+        if (owner != null) {
+            out.write(owner);
+        } else {
+            out.write(firstName);
+            out.write(' ');
+            out.write(lastName);
+        }
+    }
+
+    // 4444 + 11 цифр порядкового номера + контрольная цифра по алгоритму Луна, в формате "4444 4444 4444 4441".
+    // Номер выводится из позиции в последовательности, а не из random: CardIndex по повтору номера оставил бы
+    // только последний статус
+    private void nextNumber() {
+        for (int i = 0; i < bin.length; i++) {
+            digits[i] = bin[i] - '0';
+        }
+        serial = (serial + serialStride) % serialSpace;
+        long rest = serial;
+        for (int i = 14; i >= bin.length; i--) {
+            digits[i] = (int) (rest % 10);
+            rest /= 10;
+        }
+        int sum = 0;
+        for (int i = 14; i >= 0; i--) {
+            int digit = digits[i];
+            if ((14 - i) % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        digits[15] = (10 - sum % 10) % 10;
+        for (int i = 0, position = 0; i < 16; i++) {
+            if (i > 0 && i % 4 == 0) {
+                number[position++] = ' ';
+            }
+            number[position++] = (byte) ('0' + digits[i]);
+        }
+    }
+
+    private void spoilOneField() {
+        switch (random.nextInt(4)) {
+            case 0:
+                switch (random.nextInt(3)) {
+                    case 0:
+                        monthLength = 0;
+                        break;
+                    case 1:
+                        month[0] = (byte) ('1' + random.nextInt(9));
+                        monthLength = 1;
+                        break;
+                    default:
+                        twoDigits(month, random.nextBoolean() ? 0 : 13 + random.nextInt(87));
+                }
+                break;
+            case 1:
+                switch (random.nextInt(3)) {
+                    case 0:
+                        yearLength = 0;
+                        break;
+                    case 1:
+                        twoDigits(year, Math.floorMod(currentYear - 1 - random.nextInt(5), 100));
+                        break;
+                    default:
+                        twoDigits(year, (currentYear + 6 + random.nextInt(4)) % 100);
+                }
+                break;
+            case 2:
+                owner = invalidOwners[random.nextInt(invalidOwners.length)];
+                break;
+            default:
+                cvcLength = random.nextInt(3);
+        }
+    }
+
+    private static void twoDigits(byte[] target, int value) {
+        target[0] = (byte) ('0' + value / 10);
+        target[1] = (byte) ('0' + value % 10);
+    }
+
+    private static byte[][] ascii(String... values) {
+        byte[][] result = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return result;
+    }
+
+    private static byte[][] utf8(String... values) {
+        byte[][] result = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+}
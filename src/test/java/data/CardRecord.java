@@ -0,0 +1,10 @@
+package data;
+
+import lombok.Value;
+
+// Карта из сгенерированного файла вместе со статусом, который вернёт шлюз (APPROVED, DECLINED или UNKNOWN)
+@Value
+public class CardRecord {
+    private Card card;
+    private String status;
+}
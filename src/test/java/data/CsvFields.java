@@ -0,0 +1,49 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Разбор строки CSV как у @CsvFileSource: значения без кавычек обрезаются, пустое значение без кавычек - null,
+// удвоенная кавычка внутри кавычек - одна кавычка. Общий для @StreamingFileSource и пакетных проверок,
+// чтобы одна и та же строка .cvs значила одно и то же в любом режиме
+public class CsvFields {
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+                value.setLength(0);
+            } else if (c == ',') {
+                fields.add(field(value, wasQuoted));
+                value.setLength(0);
+                wasQuoted = false;
+            } else if (!wasQuoted) {
+                value.append(c);
+            }
+        }
+        fields.add(field(value, wasQuoted));
+        return fields;
+    }
+
+    private static String field(StringBuilder value, boolean wasQuoted) {
+        if (wasQuoted) {
+            return value.toString();
+        }
+        String trimmed = value.toString().trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
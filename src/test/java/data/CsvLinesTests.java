@@ -0,0 +1,85 @@
+package data;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Разбор CSV для @StreamingFileSource должен совпадать с @CsvFileSource на файлах wrong*.cvs, а MappedLines -
+// с построчным чтением файла. Тесты в пакете data: MappedLines закрыт внутри пакета
+@Tag("unit")
+public class CsvLinesTests {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Пустое значение без кавычек - null, с кавычками - пустая строка")
+    void shouldReadEmptyUnquotedValueAsNull() {
+        assertEquals(Arrays.asList("4444 4444 4444 4441", null, "", null),
+                CsvFields.split("4444 4444 4444 4441,,\"\", "));
+    }
+
+    @Test
+    @DisplayName("Значение без кавычек обрезается, в кавычках сохраняется как есть")
+    void shouldTrimOnlyUnquotedValues() {
+        assertEquals(Arrays.asList("08", " 22 ", "Ivan Petrov"),
+                CsvFields.split("  08 ,\" 22 \", Ivan Petrov"));
+    }
+
+    @Test
+    @DisplayName("Пробел после закрывающей кавычки не попадает в значение")
+    void shouldIgnoreSpaceAfterClosingQuote() {
+        assertEquals(Arrays.asList("0801№!", "Неверный формат"),
+                CsvFields.split("\"0801№!\" ,Неверный формат"));
+    }
+
+    @Test
+    @DisplayName("Удвоенная кавычка внутри кавычек - одна кавычка, запятая - часть значения")
+    void shouldUnescapeDoubledQuotes() {
+        assertEquals(Arrays.asList("O\"Hara, Ivan", "123"),
+                CsvFields.split("\"O\"\"Hara, Ivan\",123"));
+    }
+
+    @Test
+    @DisplayName("Строки с CRLF и без перевода строки в конце файла")
+    void shouldReadCrlfAndLastLineWithoutNewline() throws IOException {
+        Path file = write("owner,message\r\nIvan,\r\n\"Иван\",Неверный формат");
+        assertEquals(Arrays.asList("owner,message", "Ivan,", "\"Иван\",Неверный формат"), lines(file, 1 << 20));
+    }
+
+    @Test
+    @DisplayName("Строка на границе окна отображения читается целиком, в том числе многобайтовые символы")
+    void shouldReadLinesCrossingWindow() throws IOException {
+        String content = "month,year,owner\n"
+                + "01,27,Ivan Petrov\n"
+                + "13,27,Иван Петров\r\n"
+                + "\"0801№!\" ,27,Ivan\n";
+        Path file = write(content);
+        List<String> expected = Arrays.asList(content.split("\r?\n"));
+        // Окна от 1 байта до размера строки: граница окна приходится на разные места, в том числе внутрь символа
+        for (int window = 1; window <= 24; window++) {
+            assertEquals(expected, lines(file, window), "окно " + window);
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(dir.resolve("cards.csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> lines(Path file, int window) throws IOException {
+        try (Stream<String> lines = MappedLines.lines(file, window)) {
+            return lines.collect(Collectors.toList());
+        }
+    }
+}
@@ -1,24 +1,50 @@
 package data;
 
+import com.github.javafaker.Faker;
+
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DataGenerator {
+    private static final Faker faker = new Faker(new Locale("en"));
+    private static final AtomicLong ownerCounter = new AtomicLong(System.currentTimeMillis());
+    private static final DateTimeFormatter yearFormatter = DateTimeFormatter.ofPattern("yy");
+    private static final String[] cvcOptions = {"123", "999", "985", "015", "888", "656", "001", "234", "601", "111"};
+
     public static String getCorrectYear() {
         LocalDate date = LocalDate.now().plusYears(2);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yy");
-        return date.format(formatter);
+        return date.format(yearFormatter);
     }
 
     public static String getWrongYear() {
         LocalDate date = LocalDate.now().minusYears(2);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yy");
-        return date.format(formatter);
+        return date.format(yearFormatter);
     }
 
     public static String getRandomCvc() {
-        String[] cvcOptions = {"123", "999", "985", "015", "888", "656", "001", "234", "601", "111"};
-        int chooseCvc =(int) (Math.random()*cvcOptions.length);
-        return cvcOptions[chooseCvc];
+        return cvcOptions[ThreadLocalRandom.current().nextInt(cvcOptions.length)];
+    }
+
+    // Имя владельца уникально в пределах прогона: по нему тест находит свои записи в БД. Только латинские буквы
+    // и пробел: имена javafaker бывают с апострофом (O'Hara), а такой владелец не проходит проверку формы
+    public static String getUniqueOwner() {
+        return latinOnly(faker.name().firstName()) + " " + latinOnly(faker.name().lastName()) + uniqueSuffix();
+    }
+
+    private static String latinOnly(String name) {
+        return name.replaceAll("[^A-Za-z]", "");
+    }
+
+    private static String uniqueSuffix() {
+        StringBuilder suffix = new StringBuilder();
+        long value = ownerCounter.incrementAndGet();
+        while (value > 0) {
+            suffix.append((char) ('a' + value % 26));
+            value /= 26;
+        }
+        return suffix.toString();
     }
 }
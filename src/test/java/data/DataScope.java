@@ -0,0 +1,68 @@
+package data;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+// Записи в БД, относящиеся к одному тесту. Тест отличается уникальным владельцем карты,
+// по нему у шлюза запрашиваются id операций, а по ним ищутся строки в таблицах.
+// Операции, на которые шлюз не выдал id (неизвестная карта), ищутся среди строк оплат и кредитов без id,
+// созданных после начала теста (с точностью до секунды: приложение может писать время без долей)
+public class DataScope {
+    private final String owner;
+    private final LocalDateTime started = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private long lastWaitMillis = -1;
+
+    public DataScope(String owner) {
+        this.owner = owner;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getLastWaitMillis() {
+        return lastWaitMillis;
+    }
+
+    void setLastWaitMillis(long lastWaitMillis) {
+        this.lastWaitMillis = lastWaitMillis;
+    }
+
+    public List<String> getTransactionIds() {
+        return GateHelper.findTransactionIds(owner);
+    }
+
+    public String getTransactionId() {
+        List<String> ids = getTransactionIds();
+        if (ids.size() != 1) {
+            throw new IllegalStateException("Для владельца " + owner + " ожидалась одна операция в шлюзе, найдено: " + ids.size());
+        }
+        return ids.get(0);
+    }
+
+    public OperationRecord findPayment() throws SQLException {
+        return SQLHelper.findPayment(getTransactionId());
+    }
+
+    public OperationRecord findCredit() throws SQLException {
+        return SQLHelper.findCredit(getTransactionId());
+    }
+
+    public OperationRecord awaitPayment() throws SQLException {
+        return StatusWaiter.awaitPayment(this);
+    }
+
+    public OperationRecord awaitCredit() throws SQLException {
+        return StatusWaiter.awaitCredit(this);
+    }
+
+    public boolean isNotEmpty() throws SQLException {
+        return SQLHelper.isNotEmpty(getTransactionIds()) || SQLHelper.countUnlinkedOperations(started) > 0;
+    }
+
+    public void clean() throws SQLException {
+        SQLHelper.cleanTables(getTransactionIds());
+    }
+}
@@ -0,0 +1,74 @@
+package data;
+
+import io.qameta.allure.Allure;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+// Сброс состояния БД между тестами, режим задаётся -Ddb.reset:
+//   scoped   - ничего не чистить целиком, тест удаляет только свои строки (по умолчанию, годится для параллельного запуска);
+//   truncate - TRUNCATE трёх таблиц одним пакетом после каждого теста;
+//   delete   - DELETE трёх таблиц одной транзакцией после каждого теста;
+//   template - PostgreSQL: один раз за прогон пересоздать БД из шаблона db.template, дальше как scoped.
+// Ошибки сброса не глотаются: грязная БД должна ронять тест, а не искажать результаты следующих.
+public class DbReset {
+    public enum Mode { SCOPED, TRUNCATE, DELETE, TEMPLATE }
+
+    private static final Mode mode = Mode.valueOf(System.getProperty("db.reset", "scoped").toUpperCase());
+    private static final String template = System.getProperty("db.template", "app_template");
+    private static boolean prepared;
+    private static Exception failure;
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    // parallel - действующая настройка JUnit, её передаёт DbResetExtension. Режим проверяется для каждого класса,
+    // подготовка выполняется один раз: её ошибка запоминается и роняет все следующие классы, а не только первый
+    public static void beforeRun(boolean parallel) throws SQLException {
+        if (parallel && (mode == Mode.TRUNCATE || mode == Mode.DELETE)) {
+            throw new IllegalStateException("Режим db.reset=" + mode.name().toLowerCase() + " стирает данные соседних тестов, " +
+                    "при параллельном запуске используйте scoped или template");
+        }
+        synchronized (DbReset.class) {
+            if (failure != null) {
+                throw new SQLException("Подготовка БД в начале прогона не удалась", failure);
+            }
+            if (prepared) {
+                return;
+            }
+            try {
+                if (mode == Mode.TEMPLATE) {
+                    long start = System.nanoTime();
+                    SQLHelper.recreateFromTemplate(template);
+                    report("template", start);
+                }
+                SQLHelper.createLookupIndexes();
+                prepared = true;
+            } catch (SQLException | RuntimeException e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
+
+    public static void afterEach(DataScope scope) throws SQLException {
+        long start = System.nanoTime();
+        switch (mode) {
+            case TRUNCATE:
+                SQLHelper.truncateTables();
+                break;
+            case DELETE:
+                SQLHelper.cleanTables();
+                break;
+            default:
+                scope.clean();
+        }
+        report(mode.name().toLowerCase(), start);
+    }
+
+    private static void report(String name, long startNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        Allure.step(String.format("Сброс БД (%s): %.1f мс", name, micros / 1000.0));
+    }
+}
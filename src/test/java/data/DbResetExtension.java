@@ -0,0 +1,17 @@
+package data;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.sql.SQLException;
+
+// Подготовка БД перед первым тестовым классом прогона. Признак параллельного запуска берётся из конфигурации JUnit:
+// она учитывает и junit-platform.properties, а не только -Djunit.jupiter.execution.parallel.enabled
+public class DbResetExtension implements BeforeAllCallback {
+    @Override
+    public void beforeAll(ExtensionContext context) throws SQLException {
+        DbReset.beforeRun(context.getConfigurationParameter("junit.jupiter.execution.parallel.enabled")
+                .map(Boolean::parseBoolean)
+                .orElse(false));
+    }
+}
@@ -0,0 +1,241 @@
+package data;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Наполнение order_entity, payment_entity и credit_request_entity миллионами строк в том же виде, что пишет приложение:
+// пакетные INSERT (MySQL, rewriteBatchedStatements) или COPY (PostgreSQL).
+// После загрузки показывает планы и время запросов SQLHelper, чтобы было видно, нужен ли индекс по created.
+public class DbSeeder {
+    private static final int amount = 4500000;
+    private static final List<String> verificationQueries = Arrays.asList(
+            "select status from payment_entity order by created desc limit 1",
+            "select status from credit_request_entity order by created desc limit 1",
+            "select payment_id from order_entity order by created desc limit 1",
+            "select credit_id from order_entity order by created desc limit 1");
+
+    private final long operations;
+    private final int batchSize;
+    private final double creditShare;
+    private final double approvedShare;
+    private final int days;
+    private final boolean useCopy;
+    private final boolean createIndexes;
+    private final SplittableRandom random;
+    private final long now = System.currentTimeMillis();
+
+    private long seeded;
+    private long startNanos;
+    private long lastReportNanos;
+
+    public DbSeeder(long operations, int batchSize, double creditShare, double approvedShare, int days,
+                    boolean useCopy, boolean createIndexes, long seed) {
+        this.operations = operations;
+        this.batchSize = batchSize;
+        this.creditShare = creditShare;
+        this.approvedShare = approvedShare;
+        this.days = days;
+        this.useCopy = useCopy;
+        this.createIndexes = createIndexes;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new DbSeeder(
+                Long.getLong("seed.rows", 1_000_000),
+                Integer.getInteger("seed.batch", 5000),
+                Double.parseDouble(System.getProperty("seed.creditShare", "0.5")),
+                Double.parseDouble(System.getProperty("seed.approvedShare", "0.8")),
+                Integer.getInteger("seed.days", 365),
+                Boolean.parseBoolean(System.getProperty("seed.copy", "true")),
+                Boolean.getBoolean("seed.createIndexes"),
+                Long.getLong("seed.seed", 42)).run();
+    }
+
+    public void run() throws Exception {
+        try (Connection connection = SQLHelper.getConnection()) {
+            boolean postgres = connection.getMetaData().getURL().startsWith("jdbc:postgresql:");
+            connection.setAutoCommit(false);
+            startNanos = System.nanoTime();
+            lastReportNanos = startNanos;
+            if (postgres && useCopy) {
+                seedWithCopy(connection);
+            } else {
+                seedWithBatches(connection);
+            }
+            connection.setAutoCommit(true);
+            report(true);
+            if (createIndexes) {
+                createIndexes(connection);
+            }
+            explain(connection, postgres);
+        }
+        timeVerificationQueries();
+    }
+
+    private void seedWithBatches(Connection connection) throws SQLException {
+        try (PreparedStatement order = connection.prepareStatement(
+                "insert into order_entity (id, created, credit_id, payment_id) values (?, ?, ?, ?)");
+             PreparedStatement payment = connection.prepareStatement(
+                     "insert into payment_entity (id, amount, created, status, transaction_id) values (?, ?, ?, ?, ?)");
+             PreparedStatement credit = connection.prepareStatement(
+                     "insert into credit_request_entity (id, bank_id, created, status) values (?, ?, ?, ?)")) {
+            while (seeded < operations) {
+                int batch = (int) Math.min(batchSize, operations - seeded);
+                for (int i = 0; i < batch; i++) {
+                    Timestamp created = nextCreated();
+                    String operationId = nextId();
+                    boolean approved = random.nextDouble() < approvedShare;
+                    String status = approved ? "APPROVED" : "DECLINED";
+                    if (random.nextDouble() < creditShare) {
+                        credit.setString(1, nextId());
+                        credit.setString(2, operationId);
+                        credit.setTimestamp(3, created);
+                        credit.setString(4, status);
+                        credit.addBatch();
+                        addOrder(order, created, approved ? operationId : null, null);
+                    } else {
+                        payment.setString(1, nextId());
+                        payment.setInt(2, amount);
+                        payment.setTimestamp(3, created);
+                        payment.setString(4, status);
+                        payment.setString(5, operationId);
+                        payment.addBatch();
+                        addOrder(order, created, null, approved ? operationId : null);
+                    }
+                }
+                payment.executeBatch();
+                credit.executeBatch();
+                order.executeBatch();
+                connection.commit();
+                seeded += batch;
+                report(false);
+            }
+        }
+    }
+
+    private void addOrder(PreparedStatement order, Timestamp created, String creditId, String paymentId) throws SQLException {
+        order.setString(1, nextId());
+        order.setTimestamp(2, created);
+        order.setString(3, creditId);
+        order.setString(4, paymentId);
+        order.addBatch();
+    }
+
+    // COPY ... FROM STDIN порциями по seed.batch операций; пустое поле в CSV - NULL
+    private void seedWithCopy(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        StringBuilder orders = new StringBuilder();
+        StringBuilder payments = new StringBuilder();
+        StringBuilder credits = new StringBuilder();
+        while (seeded < operations) {
+            int batch = (int) Math.min(batchSize, operations - seeded);
+            orders.setLength(0);
+            payments.setLength(0);
+            credits.setLength(0);
+            for (int i = 0; i < batch; i++) {
+                String created = nextCreated().toString();
+                String operationId = nextId();
+                boolean approved = random.nextDouble() < approvedShare;
+                String status = approved ? "APPROVED" : "DECLINED";
+                orders.append(nextId()).append(',').append(created).append(',');
+                if (random.nextDouble() < creditShare) {
+                    credits.append(nextId()).append(',').append(operationId).append(',').append(created).append(',').append(status).append('\n');
+                    orders.append(approved ? operationId : "").append(",\n");
+                } else {
+                    payments.append(nextId()).append(',').append(amount).append(',').append(created).append(',').append(status).append(',').append(operationId).append('\n');
+                    orders.append(',').append(approved ? operationId : "").append('\n');
+                }
+            }
+            copy(pgConnection, "payment_entity (id, amount, created, status, transaction_id)", payments);
+            copy(pgConnection, "credit_request_entity (id, bank_id, created, status)", credits);
+            copy(pgConnection, "order_entity (id, created, credit_id, payment_id)", orders);
+            connection.commit();
+            seeded += batch;
+            report(false);
+        }
+    }
+
+    private static void copy(PGConnection connection, String table, StringBuilder rows) throws SQLException {
+        if (rows.length() == 0) {
+            return;
+        }
+        CopyIn copyIn = connection.getCopyAPI().copyIn("copy " + table + " from stdin with csv");
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        copyIn.endCopy();
+    }
+
+    private void createIndexes(Connection connection) {
+        for (String table : Arrays.asList("order_entity", "payment_entity", "credit_request_entity")) {
+            String stmt = "create index " + table + "_created_idx on " + table + " (created)";
+            try (Statement statement = connection.createStatement()) {
+                long start = System.nanoTime();
+                statement.execute(stmt);
+                System.out.printf("Индекс %s_created_idx создан за %d мс%n", table, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (SQLException e) {
+                System.out.printf("Индекс %s_created_idx не создан: %s%n", table, e.getMessage());
+            }
+        }
+    }
+
+    // Полный просмотр таблицы с сортировкой (Seq Scan + Sort в PostgreSQL, type=ALL/filesort в MySQL) означает, что индекса по created нет
+    private void explain(Connection connection, boolean postgres) throws SQLException {
+        for (String query : verificationQueries) {
+            StringBuilder plan = new StringBuilder();
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("explain " + query)) {
+                ResultSetMetaData meta = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        plan.append(postgres ? "" : meta.getColumnLabel(i) + "=").append(resultSet.getString(i)).append(' ');
+                    }
+                    plan.append('\n');
+                }
+            }
+            String text = plan.toString();
+            boolean fullScan = postgres ? text.contains("Seq Scan") : text.contains("type=ALL") || text.contains("filesort");
+            System.out.printf("%s%n%s%s%n", query, text, fullScan ? "  ВНИМАНИЕ: полный просмотр таблицы, нет индекса по created" : "  индекс используется");
+        }
+    }
+
+    private void timeVerificationQueries() throws SQLException {
+        int repeats = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            SQLHelper.findPaymentStatus();
+            SQLHelper.findCreditStatus();
+            SQLHelper.findPaymentId();
+            SQLHelper.findCreditId();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / (repeats * 4);
+        System.out.printf("Среднее время запроса SQLHelper \"последняя строка по created\": %.2f мс%n", millis);
+    }
+
+    private void report(boolean last) {
+        long nanos = System.nanoTime();
+        if (!last && nanos - lastReportNanos < TimeUnit.SECONDS.toNanos(1)) {
+            return;
+        }
+        lastReportNanos = nanos;
+        double seconds = (nanos - startNanos) / 1e9;
+        System.out.printf("%s%d/%d операций (%d строк), %.0f строк/с%n", last ? "Готово: " : "", seeded, operations,
+                seeded * 2, seeded * 2 / Math.max(seconds, 1e-9));
+    }
+
+    private Timestamp nextCreated() {
+        return new Timestamp(now - (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(days)));
+    }
+
+    private String nextId() {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
@@ -0,0 +1,76 @@
+package data;
+
+import org.h2.tools.Server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Collectors;
+
+// Встроенная H2 в памяти вместо MySQL/PostgreSQL из docker-compose: db.url=h2:mysql или h2:postgresql
+// (или полный jdbc:h2:mem:...). Схема из schema.sql создаётся при первом подключении.
+// С -Ddb.h2.tcpPort БД видна другим процессам, например SUT: jdbc:h2:tcp://localhost:<port>/mem:app
+public class EmbeddedDb {
+    private static final String options = ";DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE";
+
+    private static boolean started;
+    private static Server tcpServer;
+
+    public static String resolve(String url) {
+        if ("h2:mysql".equals(url)) {
+            return "jdbc:h2:mem:app;MODE=MySQL" + options;
+        }
+        if ("h2:postgresql".equals(url)) {
+            return "jdbc:h2:mem:app;MODE=PostgreSQL" + options;
+        }
+        return url;
+    }
+
+    public static boolean isEmbedded(String url) {
+        return url != null && url.startsWith("jdbc:h2:mem:");
+    }
+
+    public static synchronized void start(String url, String user, String password) throws SQLException {
+        if (started) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            for (String sql : readSchema().split(";")) {
+                if (!sql.trim().isEmpty()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+        String port = System.getProperty("db.h2.tcpPort");
+        if (port != null) {
+            // Только localhost и только уже созданная mem:app: иначе любой, кто достучится до порта,
+            // мог бы создать свою БД и выполнить код через CREATE ALIAS
+            tcpServer = Server.createTcpServer("-tcpPort", port, "-tcpDaemon").start();
+            Runtime.getRuntime().addShutdownHook(new Thread(EmbeddedDb::stop, "h2-tcp-stop"));
+        }
+        started = true;
+    }
+
+    public static synchronized void stop() {
+        if (tcpServer != null) {
+            tcpServer.stop();
+            tcpServer = null;
+        }
+    }
+
+    private static String readSchema() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                EmbeddedDb.class.getResourceAsStream("/schema.sql"), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package data;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+
+public class GateHelper {
+
+    private static final String gateUrl = System.getProperty("gate.url", "http://localhost:9999");
+
+    private static final RequestSpecification requestSpec = new RequestSpecBuilder()
+            .setBaseUri(gateUrl)
+            .setAccept(ContentType.JSON)
+            .build();
+
+    // id операций, которые шлюз выдал по картам данного владельца
+    public static List<String> findTransactionIds(String holder) {
+        return given()
+                .spec(requestSpec)
+                .queryParam("holder", holder)
+                .when()
+                .get("/transactions")
+                .then()
+                .statusCode(200)
+                .extract()
+                .jsonPath()
+                .getList("id", String.class);
+    }
+
+    public static List<GateOperation> findOperations(String holder) {
+        JsonPath journal = given()
+                .spec(requestSpec)
+                .queryParam("holder", holder)
+                .when()
+                .get("/transactions")
+                .then()
+                .statusCode(200)
+                .extract()
+                .jsonPath();
+        List<String> ids = journal.getList("id", String.class);
+        List<String> statuses = journal.getList("status", String.class);
+        List<String> paths = journal.getList("path", String.class);
+        List<GateOperation> operations = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            operations.add(new GateOperation(ids.get(i), statuses.get(i), paths.get(i)));
+        }
+        return operations;
+    }
+}
@@ -0,0 +1,15 @@
+package data;
+
+import lombok.Value;
+
+// Операция из журнала шлюза: выданный id, статус карты и путь запроса (/payment или /credit)
+@Value
+public class GateOperation {
+    private String id;
+    private String status;
+    private String path;
+
+    public boolean isCredit() {
+        return path.equals("/credit");
+    }
+}
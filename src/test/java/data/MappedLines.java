@@ -0,0 +1,86 @@
+package data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Строки файла через окна отображения в память: в куче только текущая строка, размер файла не ограничен
+class MappedLines extends Spliterators.AbstractSpliterator<String> {
+    private static final int defaultWindowSize = 64 << 20;
+
+    private final FileChannel channel;
+    private final int windowSize;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private byte[] line = new byte[256];
+
+    private MappedLines(FileChannel channel, int windowSize) throws IOException {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.size = channel.size();
+    }
+
+    static Stream<String> lines(Path path) throws IOException {
+        return lines(path, defaultWindowSize);
+    }
+
+    // Маленькое окно - чтобы в тестах строки пересекали границу окна
+    static Stream<String> lines(Path path, int windowSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return StreamSupport.stream(new MappedLines(channel, windowSize), false).onClose(() -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (position >= size) {
+            return false;
+        }
+        int length = 0;
+        while (position < size) {
+            byte b = byteAt(position++);
+            if (b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = b;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        action.accept(new String(line, 0, length, StandardCharsets.UTF_8));
+        return true;
+    }
+
+    private byte byteAt(long offset) {
+        if (window == null || offset >= windowStart + window.limit()) {
+            try {
+                windowStart = offset;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, size - offset));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return window.get((int) (offset - windowStart));
+    }
+}
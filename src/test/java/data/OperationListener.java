@@ -0,0 +1,118 @@
+package data;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+// PostgreSQL LISTEN/NOTIFY: триггеры на payment_entity и credit_request_entity сообщают id операции сразу после вставки.
+// Драйвер 9.0 не умеет ждать уведомление блокирующе, поэтому отдельный поток опрашивает своё соединение каждые несколько мс
+// и будит ожидающие тесты. Триггеры и функция удаляются при завершении JVM прогона.
+// Если соединение слушателя сломалось, он помечается мёртвым, будит всех ожидающих и StatusWaiter переходит на опрос.
+class OperationListener implements Runnable {
+    private static final String channel = "operation_created";
+    private static final String[] installTriggers = {
+            "create or replace function notify_operation() returns trigger language plpgsql as $$ " +
+                    "begin " +
+                    "if TG_TABLE_NAME = 'payment_entity' then perform pg_notify('" + channel + "', NEW.transaction_id); " +
+                    "else perform pg_notify('" + channel + "', NEW.bank_id); end if; " +
+                    "return NEW; end $$;",
+            "drop trigger if exists payment_entity_notify on payment_entity;",
+            "create trigger payment_entity_notify after insert on payment_entity for each row execute procedure notify_operation();",
+            "drop trigger if exists credit_request_entity_notify on credit_request_entity;",
+            "create trigger credit_request_entity_notify after insert on credit_request_entity for each row execute procedure notify_operation();"
+    };
+    private static final String[] dropTriggers = {
+            "drop trigger if exists payment_entity_notify on payment_entity;",
+            "drop trigger if exists credit_request_entity_notify on credit_request_entity;",
+            "drop function if exists notify_operation();"
+    };
+
+    private static OperationListener instance;
+
+    private final Connection connection;
+    private final Map<String, CountDownLatch> waiters = new ConcurrentHashMap<>();
+    private volatile boolean alive = true;
+
+    private OperationListener(Connection connection) {
+        this.connection = connection;
+    }
+
+    static synchronized OperationListener get() throws SQLException {
+        if (instance == null) {
+            Connection connection = DriverManager.getConnection(SQLHelper.url, SQLHelper.user, SQLHelper.password);
+            try (Statement statement = connection.createStatement()) {
+                for (String stmt : installTriggers) {
+                    statement.execute(stmt);
+                }
+                statement.execute("listen " + channel + ";");
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(OperationListener::dropTriggers, "operation-listener-cleanup"));
+            instance = new OperationListener(connection);
+            Thread thread = new Thread(instance, "operation-listener");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+
+    private static void dropTriggers() {
+        try (Connection connection = DriverManager.getConnection(SQLHelper.url, SQLHelper.user, SQLHelper.password);
+             Statement statement = connection.createStatement()) {
+            for (String stmt : dropTriggers) {
+                statement.execute(stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println("Не удалось удалить триггеры LISTEN/NOTIFY: " + e.getMessage());
+        }
+    }
+
+    boolean isAlive() {
+        return alive;
+    }
+
+    CountDownLatch register(String id) {
+        return waiters.computeIfAbsent(id, key -> new CountDownLatch(1));
+    }
+
+    void unregister(String id) {
+        waiters.remove(id);
+    }
+
+    // Соединение создано через DriverManager, а не пулом, поэтому приводится к PGConnection напрямую:
+    // unwrap в драйвере 9.0 не реализован
+    @Override
+    public void run() {
+        PGConnection pgConnection = (PGConnection) connection;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("select 1;");
+                }
+                PGNotification[] notifications = pgConnection.getNotifications();
+                if (notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        CountDownLatch latch = waiters.get(notification.getParameter());
+                        if (latch != null) {
+                            latch.countDown();
+                        }
+                    }
+                }
+                Thread.sleep(5);
+            }
+        } catch (SQLException e) {
+            System.err.println("Слушатель LISTEN/NOTIFY остановлен, ожидание статуса переходит на опрос: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            alive = false;
+            waiters.values().forEach(CountDownLatch::countDown);
+        }
+    }
+}
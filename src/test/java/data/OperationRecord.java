@@ -0,0 +1,22 @@
+package data;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Операция оплаты или кредита вместе с заказом, если приложение его создало.
+// operationId - id, выданный шлюзом (transaction_id или bank_id), amount есть только у оплаты
+@Value
+public class OperationRecord {
+    private String id;
+    private String operationId;
+    private String status;
+    private Integer amount;
+    private LocalDateTime created;
+    private String orderId;
+    private LocalDateTime orderCreated;
+
+    public boolean hasOrder() {
+        return orderId != null;
+    }
+}
@@ -0,0 +1,16 @@
+package data;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+// Строки БД по набору id операций: статусы операций и id заказов, сгруппированные по id операции.
+// Список длиннее одного элемента означает дубликат
+@Value
+public class OperationRows {
+    private Map<String, List<String>> paymentStatuses;
+    private Map<String, List<String>> creditStatuses;
+    private Map<String, List<String>> paymentOrders;
+    private Map<String, List<String>> creditOrders;
+}
@@ -0,0 +1,14 @@
+package data;
+
+import lombok.Value;
+
+@Value
+public class PoolStats {
+    private int active;
+    private int idle;
+    private int total;
+    private int awaiting;
+    private long checkouts;
+    private double avgWaitMillis;
+    private double maxWaitMillis;
+}
@@ -0,0 +1,96 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Сверка журнала шлюза со строками БД. На каждую операцию шлюза должна быть ровно одна строка операции
+// в таблице своего типа с тем же статусом; у APPROVED - ровно один заказ со ссылкой в колонке своего типа,
+// у DECLINED заказа нет (как в PurchaseTests):
+//   lost       - нет строки операции или заказа у APPROVED;
+//   duplicated - больше одной строки операции или заказа;
+//   mislinked  - строка или заказ не того типа, другой статус, заказ у DECLINED
+public class Reconciliation {
+    private final int operations;
+    private final List<String> lost = new ArrayList<>();
+    private final List<String> duplicated = new ArrayList<>();
+    private final List<String> mislinked = new ArrayList<>();
+
+    public Reconciliation(List<GateOperation> journal, OperationRows rows) {
+        this.operations = journal.size();
+        for (GateOperation operation : journal) {
+            String id = operation.getId();
+            boolean credit = operation.isCredit();
+            List<String> statuses = get(credit ? rows.getCreditStatuses() : rows.getPaymentStatuses(), id);
+            List<String> orders = get(credit ? rows.getCreditOrders() : rows.getPaymentOrders(), id);
+            String label = operation.getPath() + " " + id;
+            if (statuses.isEmpty()) {
+                lost.add(label + ": нет строки операции");
+            } else if (statuses.size() > 1) {
+                duplicated.add(label + ": строк операции " + statuses.size());
+            } else if (!statuses.get(0).equals(operation.getStatus())) {
+                mislinked.add(label + ": статус в БД " + statuses.get(0) + ", у шлюза " + operation.getStatus());
+            }
+            if (!get(credit ? rows.getPaymentStatuses() : rows.getCreditStatuses(), id).isEmpty()) {
+                mislinked.add(label + ": строка в таблице другого типа операции");
+            }
+            if (!get(credit ? rows.getPaymentOrders() : rows.getCreditOrders(), id).isEmpty()) {
+                mislinked.add(label + ": заказ ссылается на операцию колонкой другого типа");
+            }
+            boolean approved = "APPROVED".equals(operation.getStatus());
+            if (approved && orders.isEmpty() && !statuses.isEmpty()) {
+                lost.add(label + ": нет заказа");
+            } else if (orders.size() > 1) {
+                duplicated.add(label + ": заказов " + orders.size());
+            } else if (!approved && !orders.isEmpty()) {
+                mislinked.add(label + ": заказ у операции со статусом " + operation.getStatus());
+            }
+        }
+    }
+
+    private static List<String> get(Map<String, List<String>> rows, String id) {
+        return rows.getOrDefault(id, Collections.emptyList());
+    }
+
+    public boolean isConsistent() {
+        return lost.isEmpty() && duplicated.isEmpty() && mislinked.isEmpty();
+    }
+
+    public List<String> getLost() {
+        return lost;
+    }
+
+    public List<String> getDuplicated() {
+        return duplicated;
+    }
+
+    public List<String> getMislinked() {
+        return mislinked;
+    }
+
+    public String summary() {
+        return String.format("операций %d, потеряно %d, дубликатов %d, неверных связей %d",
+                operations, lost.size(), duplicated.size(), mislinked.size());
+    }
+
+    // Сводка и первые limit расхождений каждого вида
+    public String report(int limit) {
+        StringBuilder result = new StringBuilder(summary()).append('\n');
+        append(result, "Потеряно", lost, limit);
+        append(result, "Дубликаты", duplicated, limit);
+        append(result, "Неверные связи", mislinked, limit);
+        return result.toString();
+    }
+
+    private static void append(StringBuilder result, String title, List<String> problems, int limit) {
+        if (problems.isEmpty()) {
+            return;
+        }
+        result.append(title).append(":\n");
+        problems.stream().limit(limit).forEach(problem -> result.append("  ").append(problem).append('\n'));
+        if (problems.size() > limit) {
+            result.append("  ... ещё ").append(problems.size() - limit).append('\n');
+        }
+    }
+}
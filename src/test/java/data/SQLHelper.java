@@ -1,15 +1,102 @@
 package data;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import metrics.StepTimings;
+
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SQLHelper {
 
-    private static final String url = System.getProperty("db.url");
-    private static final String user = "app";
-    private static final String password = "pass";
+    static final String url = EmbeddedDb.resolve(System.getProperty("db.url"));
+    static final String user = "app";
+    static final String password = "pass";
+
+    private static final int rowsBatch = 500;
+    private static final List<String> tables = Arrays.asList("order_entity", "payment_entity", "credit_request_entity");
+
+    private static final AtomicLong checkouts = new AtomicLong();
+    private static final AtomicLong waitNanos = new AtomicLong();
+    private static final AtomicLong maxWaitNanos = new AtomicLong();
+
+    // Пул поднимается при первом обращении к БД
+    private static class Pool {
+        private static final HikariDataSource dataSource = createDataSource();
+    }
+
+    private static HikariDataSource createDataSource() {
+        if (EmbeddedDb.isEmbedded(url)) {
+            try {
+                EmbeddedDb.start(url, user, password);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Не удалось поднять встроенную БД " + url, e);
+            }
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("sql-helper");
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMaximumPoolSize(Integer.getInteger("db.pool.size", 4));
+        config.setMinimumIdle(Integer.getInteger("db.pool.minIdle", 1));
+        config.setConnectionTimeout(Long.getLong("db.pool.timeout", 10000));
+        config.setValidationTimeout(Long.getLong("db.pool.validationTimeout", 1000));
+        // postgresql 9.0 драйвер не реализует Connection.isValid, поэтому проверяем запросом
+        config.setConnectionTestQuery("select 1");
+        if (url != null && url.startsWith("jdbc:mysql:")) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "64");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "1024");
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        } else if (url != null && url.startsWith("jdbc:postgresql:")) {
+            config.addDataSourceProperty("prepareThreshold", "1");
+        }
+        return new HikariDataSource(config);
+    }
+
+    static Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = Pool.dataSource.getConnection();
+        long waited = System.nanoTime() - start;
+        checkouts.incrementAndGet();
+        waitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return connection;
+    }
 
+    public static PoolStats getPoolStats() {
+        HikariPoolMXBean pool = Pool.dataSource.getHikariPoolMXBean();
+        long count = checkouts.get();
+        double avgWait = count == 0 ? 0 : waitNanos.get() / 1e6 / count;
+        return new PoolStats(pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(), count, avgWait, maxWaitNanos.get() / 1e6);
+    }
 
-    private static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, user, password);
+    // Соединения с БД приложения на стороне сервера, включая пул SUT; -1, если СУБД не поддерживается
+    public static long countServerConnections() throws SQLException {
+        String stmt;
+        if (isPostgres()) {
+            stmt = "select count(*) as total from pg_stat_activity where datname = current_database();";
+        } else if (url.startsWith("jdbc:mysql:")) {
+            stmt = "select count(*) as total from information_schema.processlist where db = database();";
+        } else if (url.startsWith("jdbc:h2:")) {
+            stmt = "select count(*) as total from information_schema.sessions;";
+        } else {
+            return -1;
+        }
+        return Long.parseLong(getData(stmt, "total"));
     }
 
     public static String findPaymentStatus() throws SQLException{
@@ -36,44 +123,364 @@ public class SQLHelper {
         return getData(stmt, columnName);
     }
 
+    // Поиск записей конкретного теста по id операции, выданному шлюзом:
+    // order_entity.payment_id = payment_entity.transaction_id, order_entity.credit_id = credit_request_entity.bank_id.
+    // Операция и заказ читаются одним запросом по индексу; null, пока приложение не записало операцию.
+
+    public static OperationRecord findPayment(String transactionId) throws SQLException {
+        String stmt = "select p.id, p.transaction_id as operation_id, p.status, p.amount, p.created, " +
+                "o.id as order_id, o.created as order_created from payment_entity p " +
+                "left join order_entity o on o.payment_id = p.transaction_id where p.transaction_id = ?;";
+        return findOperation(stmt, transactionId);
+    }
+
+    public static OperationRecord findCredit(String bankId) throws SQLException {
+        String stmt = "select c.id, c.bank_id as operation_id, c.status, null as amount, c.created, " +
+                "o.id as order_id, o.created as order_created from credit_request_entity c " +
+                "left join order_entity o on o.credit_id = c.bank_id where c.bank_id = ?;";
+        return findOperation(stmt, bankId);
+    }
+
+    private static OperationRecord findOperation(String stmt, String operationId) throws SQLException {
+        return timed(stmt, () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(stmt)) {
+                statement.setString(1, operationId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return null;
+                    }
+                    int amount = resultSet.getInt("amount");
+                    return new OperationRecord(resultSet.getString("id"), resultSet.getString("operation_id"),
+                            resultSet.getString("status"), resultSet.wasNull() ? null : amount,
+                            toLocalDateTime(resultSet.getTimestamp("created")), resultSet.getString("order_id"),
+                            toLocalDateTime(resultSet.getTimestamp("order_created")));
+                }
+            }
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    // Индексы по id операции для findPayment/findCredit и очистки по id: схему создаёт приложение без них.
+    // Уже существующие индексы (в том числе под другим именем) не пересоздаются, отсутствующие таблицы пропускаются
+    public static void createLookupIndexes() throws SQLException {
+        String[][] indexes = {
+                {"payment_entity", "transaction_id"},
+                {"credit_request_entity", "bank_id"},
+                {"order_entity", "payment_id"},
+                {"order_entity", "credit_id"}};
+        try (Connection connection = getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            for (String[] index : indexes) {
+                String table = index[0];
+                String column = index[1];
+                if (!tableExists(meta, table) || hasIndex(meta, table, column)) {
+                    continue;
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("create index " + table + "_" + column + "_idx on " + table + " (" + column + ")");
+                }
+            }
+        }
+    }
+
+    private static boolean tableExists(DatabaseMetaData meta, String table) throws SQLException {
+        try (ResultSet tables = meta.getTables(null, null, null, new String[]{"TABLE"})) {
+            while (tables.next()) {
+                if (table.equalsIgnoreCase(tables.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Индекс подходит, если колонка в нём первая
+    private static boolean hasIndex(DatabaseMetaData meta, String table, String column) throws SQLException {
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet columns = meta.getIndexInfo(null, null, name, false, true)) {
+                while (columns.next()) {
+                    if (columns.getShort("ORDINAL_POSITION") == 1 && column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean isNotEmpty(List<String> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return false;
+        }
+        String in = placeholders(ids.size());
+        String stmt = "select 1 from order_entity where payment_id in " + in + " or credit_id in " + in +
+                " union all select 1 from payment_entity where transaction_id in " + in +
+                " union all select 1 from credit_request_entity where bank_id in " + in + ";";
+        return timed("isNotEmpty(ids)", () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(stmt)) {
+                bind(statement, ids, 4);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next();
+                }
+            }
+        });
+    }
+
+    // Все строки по id операций тремя запросами на пачку id, для сверки с журналом шлюза после массовой нагрузки
+    public static OperationRows findOperationRows(List<String> ids) throws SQLException {
+        OperationRows rows = new OperationRows(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+        for (int from = 0; from < ids.size(); from += rowsBatch) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + rowsBatch));
+            String in = placeholders(batch.size());
+            collect("select transaction_id, status from payment_entity where transaction_id in " + in + ";",
+                    batch, 1, rows.getPaymentStatuses());
+            collect("select bank_id, status from credit_request_entity where bank_id in " + in + ";",
+                    batch, 1, rows.getCreditStatuses());
+            collect("select payment_id, credit_id, id from order_entity where payment_id in " + in + " or credit_id in " + in + ";",
+                    batch, 2, rows.getPaymentOrders(), rows.getCreditOrders());
+        }
+        return rows;
+    }
+
+    // Колонки кроме последней - id операций (каждая раскладывается в свою карту), последняя - значение
+    @SafeVarargs
+    private static void collect(String stmt, List<String> ids, int times, Map<String, List<String>>... targets) throws SQLException {
+        Set<String> wanted = new HashSet<>(ids);
+        timed("findOperationRows", () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(stmt)) {
+                bind(statement, ids, times);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        String value = resultSet.getString(targets.length + 1);
+                        for (int i = 0; i < targets.length; i++) {
+                            String id = resultSet.getString(i + 1);
+                            if (id != null && wanted.contains(id)) {
+                                targets[i].computeIfAbsent(id, key -> new ArrayList<>(1)).add(value);
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // Строки без id операции шлюза. Шлюз отвечает 400 на неизвестную карту и не выдаёт id, поэтому всё,
+    // что приложение записало бы по такой карте, попадает сюда, а не в поиск по id из журнала
+    // Операции без id шлюза, созданные не раньше since. Заказы не считаются: у заказов DECLINED-операций
+    // обе ссылки пустые, их пишут и приложение, и DbSeeder
+    public static long countUnlinkedOperations(LocalDateTime since) throws SQLException {
+        String stmt = "select (select count(*) from payment_entity where transaction_id is null and created >= ?)" +
+                " + (select count(*) from credit_request_entity where bank_id is null and created >= ?) as total;";
+        Timestamp from = Timestamp.valueOf(since);
+        return timed(stmt, () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(stmt)) {
+                statement.setTimestamp(1, from);
+                statement.setTimestamp(2, from);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getLong("total");
+                }
+            }
+        });
+    }
+
+    public static long countRows(String table) throws SQLException {
+        if (!tables.contains(table)) {
+            throw new IllegalArgumentException("Неизвестная таблица: " + table);
+        }
+        String stmt = "select count(*) as total from " + table + ";";
+        String columnName = "total";
+        return Long.parseLong(getData(stmt, columnName));
+    }
+
     public static boolean isNotEmpty() throws SQLException{
-        String stmt = "select * from order_entity;";
-        Connection connection = getConnection();
-        PreparedStatement statement = connection.prepareStatement(stmt);
-        ResultSet resultSet = statement.executeQuery();
-        boolean dbNotEmpty = resultSet.next();
-        connection.close();
-        return dbNotEmpty;
-    }
-
-   private static String getData(String stmt, String columnName) throws SQLException {
-        String result;
-        Connection connection = getConnection();
-        PreparedStatement statement = connection.prepareStatement(stmt);
-        ResultSet resultSet = statement.executeQuery();
-        resultSet.next();
-        result = resultSet.getString(columnName);
-        connection.close();
-        return result;
-    }
-
-    public static void cleanTables() {
+        String stmt = "select 1 from order_entity limit 1;";
+        return timed(stmt, () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(stmt);
+                 ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        });
+    }
+
+   private static String getData(String stmt, String columnName, String... params) throws SQLException {
+        return timed(stmt, () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(stmt)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setString(i + 1, params[i]);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(columnName);
+                }
+            }
+        });
+    }
+
+    private static String getOptionalData(String stmt, String columnName, String... params) throws SQLException {
+        return timed(stmt, () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(stmt)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setString(i + 1, params[i]);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getString(columnName) : null;
+                }
+            }
+        });
+    }
+
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    // Время каждого запроса попадает в StepTimings под именем "sql: <запрос>"
+    private static <T> T timed(String step, SqlCall<T> call) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            StepTimings.record("sql: " + step, System.nanoTime() - start);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    private static void bind(PreparedStatement statement, List<String> ids, int times) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < times; i++) {
+            for (String id : ids) {
+                statement.setString(index++, id);
+            }
+        }
+    }
+
+    public static void cleanTables() throws SQLException {
         String deleteOrderEntity = "delete from order_entity;";
         String deletePaymentEntity = "delete from payment_entity;";
         String deleteCreditEntity = "delete from credit_request_entity;";
 
+        timed("cleanTables()", () -> {
+            try (Connection connection = getConnection();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(false);
+                try {
+                    statement.addBatch(deleteOrderEntity);
+                    statement.addBatch(deletePaymentEntity);
+                    statement.addBatch(deleteCreditEntity);
+                    statement.executeBatch();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+            return null;
+        });
+    }
+
+    public static void truncateTables() throws SQLException {
+        timed("truncateTables()", () -> {
+            try (Connection connection = getConnection();
+                 Statement statement = connection.createStatement()) {
+                if (isPostgres()) {
+                    statement.executeUpdate("truncate order_entity, payment_entity, credit_request_entity;");
+                    return null;
+                }
+                for (String table : tables) {
+                    statement.addBatch("truncate table " + table + ";");
+                }
+                statement.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    // PostgreSQL: БД из db.url пересоздаётся копией шаблона. Если шаблона нет, он снимается с очищенной текущей БД.
+    // Соединения к БД (в том числе приложения) при этом обрываются, пулы переподключаются сами.
+    public static void recreateFromTemplate(String template) throws SQLException {
+        if (!isPostgres()) {
+            throw new IllegalStateException("Сброс из шаблона поддерживается только для PostgreSQL, db.url=" + url);
+        }
+        String database = url.replaceAll("^jdbc:postgresql://[^/]+/([^?]+).*$", "$1");
+        String maintenanceUrl = url.replaceAll("^(jdbc:postgresql://[^/]+/)[^?]+", "$1postgres");
+        boolean templateExists;
+        try (Connection connection = DriverManager.getConnection(maintenanceUrl, user, password);
+             PreparedStatement statement = connection.prepareStatement("select 1 from pg_database where datname = ?;")) {
+            statement.setString(1, template);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                templateExists = resultSet.next();
+            }
+        }
+        if (!templateExists) {
+            truncateTables();
+        }
+        Pool.dataSource.getHikariPoolMXBean().softEvictConnections();
+        try (Connection connection = DriverManager.getConnection(maintenanceUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            String terminate = "select pg_terminate_backend(procpid) from pg_stat_activity where datname = '%s' and procpid <> pg_backend_pid();";
+            String terminateByPid = terminate.replace("procpid", "pid");
+            if (!templateExists) {
+                terminate(statement, terminate, terminateByPid, database);
+                statement.executeUpdate("create database " + template + " template " + database + ";");
+            }
+            terminate(statement, terminate, terminateByPid, database);
+            statement.executeUpdate("drop database " + database + ";");
+            statement.executeUpdate("create database " + database + " template " + template + ";");
+        }
+    }
+
+    // В pg_stat_activity до 9.2 колонка называлась procpid, после - pid
+    private static void terminate(Statement statement, String oldColumn, String newColumn, String database) throws SQLException {
         try {
-            Connection connection = getConnection();
-            PreparedStatement orderEntity = connection.prepareStatement(deleteOrderEntity);
-            PreparedStatement paymentEntity = connection.prepareStatement(deletePaymentEntity);
-            PreparedStatement creditEntity = connection.prepareStatement(deleteCreditEntity);
-            orderEntity.executeUpdate();
-            paymentEntity.executeUpdate();
-            creditEntity.executeUpdate();
-            connection.close();
+            statement.executeQuery(String.format(newColumn, database)).close();
         } catch (SQLException e) {
-            e.getErrorCode();
+            statement.executeQuery(String.format(oldColumn, database)).close();
         }
     }
 
+    static boolean isPostgres() {
+        return url != null && url.startsWith("jdbc:postgresql:");
+    }
+
+    public static void cleanTables(List<String> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String in = placeholders(ids.size());
+        String deleteOrderEntity = "delete from order_entity where payment_id in " + in + " or credit_id in " + in + ";";
+        String deletePaymentEntity = "delete from payment_entity where transaction_id in " + in + ";";
+        String deleteCreditEntity = "delete from credit_request_entity where bank_id in " + in + ";";
+
+        timed("cleanTables(ids)", () -> {
+            try (Connection connection = getConnection();
+                 PreparedStatement orderEntity = connection.prepareStatement(deleteOrderEntity);
+                 PreparedStatement paymentEntity = connection.prepareStatement(deletePaymentEntity);
+                 PreparedStatement creditEntity = connection.prepareStatement(deleteCreditEntity)) {
+                bind(orderEntity, ids, 2);
+                bind(paymentEntity, ids, 1);
+                bind(creditEntity, ids, 1);
+                orderEntity.executeUpdate();
+                paymentEntity.executeUpdate();
+                creditEntity.executeUpdate();
+            }
+            return null;
+        });
+    }
+
 }
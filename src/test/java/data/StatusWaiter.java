@@ -0,0 +1,115 @@
+package data;
+
+import io.qameta.allure.Allure;
+import metrics.StepTimings;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Ожидание результата операции на бэкенде: сначала id операции в журнале шлюза, затем строка с этим id в БД.
+// У APPROVED ожидание длится, пока не появится и заказ.
+// Опрос начинается с нескольких миллисекунд и увеличивает интервал, пока ответа нет;
+// на PostgreSQL с -Ddb.notify=true строка ожидается по LISTEN/NOTIFY. Время ожидания попадает в отчёт Allure.
+public class StatusWaiter {
+    private static final long timeoutMillis = Long.getLong("status.timeout", 15000);
+    private static final long firstPollMillis = 5;
+    private static final long maxPollMillis = 200;
+
+    private interface Lookup<T> {
+        T find() throws SQLException;
+    }
+
+    private interface OperationQuery {
+        OperationRecord find(String id) throws SQLException;
+    }
+
+    public static OperationRecord awaitPayment(DataScope scope) throws SQLException {
+        return await(scope, "оплаты", SQLHelper::findPayment);
+    }
+
+    public static OperationRecord awaitCredit(DataScope scope) throws SQLException {
+        return await(scope, "кредита", SQLHelper::findCredit);
+    }
+
+    private static OperationRecord await(DataScope scope, String operation, OperationQuery query) throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        String id = poll(deadline, () -> {
+            List<String> ids = scope.getTransactionIds();
+            return ids.isEmpty() ? null : ids.get(ids.size() - 1);
+        });
+        if (id == null) {
+            throw new AssertionError("Шлюз не получил запрос " + operation + " от владельца " + scope.getOwner() + " за " + timeoutMillis + " мс");
+        }
+        Lookup<OperationRecord> complete = () -> {
+            OperationRecord found = query.find(id);
+            return found != null && isComplete(found) ? found : null;
+        };
+        OperationRecord record = Boolean.getBoolean("db.notify") && SQLHelper.isPostgres()
+                ? listen(deadline, id, complete)
+                : poll(deadline, complete);
+        if (record == null) {
+            // APPROVED без заказа к сроку: вернуть как есть, проверка заказа в тесте покажет расхождение
+            record = query.find(id);
+        }
+        if (record == null) {
+            throw new AssertionError("Операция " + id + " не появилась в БД за " + timeoutMillis + " мс");
+        }
+        long elapsed = System.nanoTime() - start;
+        StepTimings.record("wait: статус " + operation, elapsed);
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        scope.setLastWaitMillis(millis);
+        Allure.step("Статус " + operation + " " + record.getStatus() + " получен из БД за " + millis + " мс");
+        return record;
+    }
+
+    // Приложение может записать заказ после строки операции: у APPROVED ждём и заказ
+    private static boolean isComplete(OperationRecord record) {
+        return !"APPROVED".equals(record.getStatus()) || record.hasOrder();
+    }
+
+    private static <T> T poll(long deadline, Lookup<T> lookup) throws SQLException {
+        long pause = firstPollMillis;
+        while (true) {
+            T value = lookup.find();
+            if (value != null || System.nanoTime() >= deadline) {
+                return value;
+            }
+            sleep(Math.min(pause, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1));
+            pause = Math.min(pause * 3 / 2 + 1, maxPollMillis);
+        }
+    }
+
+    private static OperationRecord listen(long deadline, String id, Lookup<OperationRecord> lookup) throws SQLException {
+        OperationListener listener = OperationListener.get();
+        if (!listener.isAlive()) {
+            return poll(deadline, lookup);
+        }
+        CountDownLatch created = listener.register(id);
+        try {
+            // строка могла появиться до подписки
+            OperationRecord record = lookup.find();
+            if (record != null) {
+                return record;
+            }
+            created.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            // уведомление приходит на вставку операции, заказ (или всё, если слушатель умер) добирается опросом
+            return poll(deadline, lookup);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            listener.unregister(id);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
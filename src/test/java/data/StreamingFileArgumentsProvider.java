@@ -0,0 +1,143 @@
+package data;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Строки читаются лениво по мере выполнения тестов, поэтому память не зависит от размера файла
+class StreamingFileArgumentsProvider implements ArgumentsProvider, AnnotationConsumer<StreamingFileSource> {
+    private StreamingFileSource source;
+
+    @Override
+    public void accept(StreamingFileSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context) throws IOException {
+        boolean corpus = source.corpus();
+        double sample = corpus && System.getProperty("source.sample") != null
+                ? Double.parseDouble(System.getProperty("source.sample")) : source.sample();
+        long seed = corpus ? Long.getLong("source.seed", source.seed()) : source.seed();
+        int workers = corpus ? Integer.getInteger("source.workers", 1) : 1;
+        int worker = corpus ? Integer.getInteger("source.worker", 0) : 0;
+        String tagsProperty = corpus ? System.getProperty("source.tags") : null;
+        Set<String> tags = new HashSet<>(tagsProperty != null && !tagsProperty.isEmpty()
+                ? Arrays.asList(tagsProperty.split(",")) : Arrays.asList(source.tags()));
+
+        AtomicLong index = new AtomicLong();
+        return rows(source.value())
+                .filter(row -> {
+                    long i = index.getAndIncrement();
+                    return i % workers == worker && (sample >= 1.0 || toUnit(mix(seed ^ i)) < sample);
+                })
+                .filter(row -> tags.isEmpty() || row.tags.stream().anyMatch(tags::contains))
+                .limit(source.limit())
+                .map(row -> Arguments.of(row.values));
+    }
+
+    private static Stream<Row> rows(String location) throws IOException {
+        URL resource = StreamingFileArgumentsProvider.class.getResource(location.startsWith("/") ? location : "/" + location);
+        if (resource != null && !"file".equals(resource.getProtocol())) {
+            // Ресурс внутри jar отобразить в память нельзя, читаем потоком
+            BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8));
+            return csvRows(reader.lines()).onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Path path = resource != null ? toPath(resource) : Paths.get(location);
+        if (!Files.exists(path)) {
+            throw new IOException("Не найден файл с аргументами: " + location);
+        }
+        if (CardFile.isBinary(path)) {
+            return CardFile.read(path).map(record -> {
+                Card card = record.getCard();
+                return new Row(new Object[]{card.getNumber(), card.getMonth(), card.getYear(), card.getOwner(), card.getCvc(),
+                        record.getStatus()}, Collections.singletonList(record.getStatus()));
+            });
+        }
+        return csvRows(MappedLines.lines(path));
+    }
+
+    private static Stream<Row> csvRows(Stream<String> lines) {
+        CsvRows rows = new CsvRows();
+        return lines.filter(rows::isData).map(rows::toRow);
+    }
+
+    private static Path toPath(URL resource) {
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(resource.toString(), e);
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double toUnit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    // Теги - колонка tags (убирается из аргументов), а в файле карт без неё - колонка status
+    private static class CsvRows {
+        private boolean header = true;
+        private int tagsColumn = -1;
+        private int statusColumn = -1;
+
+        private boolean isData(String line) {
+            if (header) {
+                header = false;
+                List<String> names = Arrays.asList(line.toLowerCase().split(",", -1));
+                tagsColumn = names.indexOf("tags");
+                statusColumn = names.indexOf("status");
+                return false;
+            }
+            return !line.trim().isEmpty();
+        }
+
+        private Row toRow(String line) {
+            List<String> fields = CsvFields.split(line);
+            if (tagsColumn >= 0 && tagsColumn < fields.size()) {
+                String tags = fields.remove(tagsColumn);
+                return new Row(fields.toArray(), tags == null ? Collections.emptyList() : Arrays.asList(tags.split(";")));
+            }
+            if (statusColumn >= 0 && statusColumn < fields.size()) {
+                return new Row(fields.toArray(), Collections.singletonList(fields.get(statusColumn)));
+            }
+            return new Row(fields.toArray(), Collections.emptyList());
+        }
+    }
+
+    private static class Row {
+        private final Object[] values;
+        private final List<String> tags;
+
+        private Row(Object[] values, List<String> tags) {
+            this.values = values;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package data;
+
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.lang.annotation.*;
+
+// Источник аргументов для больших наборов: CSV с заголовком или файл карт .bin читаются потоково, без загрузки в память.
+// Путь ищется среди ресурсов теста, затем в файловой системе
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ArgumentsSource(StreamingFileArgumentsProvider.class)
+public @interface StreamingFileSource {
+
+    String value();
+
+    // Доля строк, попадающих в прогон; выбор детерминирован по номеру строки и seed
+    double sample() default 1.0;
+
+    long seed() default 0;
+
+    long limit() default Long.MAX_VALUE;
+
+    // Только строки с одним из тегов: колонка tags в CSV (через ';'), статус карты для .bin
+    String[] tags() default {};
+
+    // Большой набор: к нему применяются свойства прогона source.sample, source.seed, source.tags
+    // и source.worker/source.workers (строки с номером i % workers == worker). Маленькие наборы они не трогают,
+    // иначе выборка могла бы оставить тест без единой строки
+    boolean corpus() default false;
+}
@@ -0,0 +1,138 @@
+package data;
+
+import java.time.YearMonth;
+
+// Модель проверок формы оплаты/кредита. Ввод сначала проходит через маски полей (номер, месяц, год и CVC
+// принимают только цифры и обрезаются по длине), затем каждое поле получает одно сообщение или проходит проверку.
+// Результат упакован в int по 3 бита на поле, поэтому классификация не создаёт объектов
+public class ValidationOracle {
+    public static final int NUMBER = 0;
+    public static final int MONTH = 1;
+    public static final int YEAR = 2;
+    public static final int OWNER = 3;
+    public static final int CVC = 4;
+    public static final String[] fieldNames = {"number", "month", "year", "owner", "cvc"};
+
+    public static final int VALID = 0;
+    public static final int INVALID_FORMAT = 1;
+    public static final int INVALID_DATE = 2;
+    public static final int EXPIRED = 3;
+    public static final int REQUIRED = 4;
+    public static final String[] messages = {null, "Неверный формат", "Неверно указан срок действия карты",
+            "Истёк срок действия карты", "Поле обязательно для заполнения"};
+
+    private static final int maxYearsAhead = 5;
+
+    private final int currentYear;
+    private final int currentMonth;
+
+    public ValidationOracle(YearMonth now) {
+        this.currentYear = now.getYear() % 100;
+        this.currentMonth = now.getMonthValue();
+    }
+
+    public ValidationOracle() {
+        this(YearMonth.now());
+    }
+
+    public int classify(Card card) {
+        int month = twoDigits(card.getMonth());
+        int year = twoDigits(card.getYear());
+        int monthResult = month < 0 ? INVALID_FORMAT : month < 1 || month > 12 ? INVALID_DATE : VALID;
+        int yearResult;
+        if (year < 0) {
+            yearResult = INVALID_FORMAT;
+        } else if (year < currentYear) {
+            yearResult = EXPIRED;
+        } else if (year > currentYear + maxYearsAhead) {
+            yearResult = INVALID_DATE;
+        } else {
+            yearResult = VALID;
+        }
+        // Истёкший месяц текущего года приложение показывает под месяцем
+        if (monthResult == VALID && yearResult == VALID && year == currentYear && month < currentMonth) {
+            monthResult = INVALID_DATE;
+        }
+        return pack(NUMBER, digitCount(card.getNumber(), 16) == 16 ? VALID : INVALID_FORMAT)
+                | pack(MONTH, monthResult)
+                | pack(YEAR, yearResult)
+                | pack(OWNER, owner(card.getOwner()))
+                | pack(CVC, digitCount(card.getCvc(), 3) == 3 ? VALID : INVALID_FORMAT);
+    }
+
+    public static int resultOf(int verdict, int field) {
+        return (verdict >>> (field * 3)) & 7;
+    }
+
+    public static String messageOf(int verdict, int field) {
+        return messages[resultOf(verdict, field)];
+    }
+
+    // Класс эквивалентности для отчёта: "valid" или поля с сообщениями
+    public static String describe(int verdict) {
+        if (verdict == 0) {
+            return "valid";
+        }
+        StringBuilder result = new StringBuilder();
+        for (int field = NUMBER; field <= CVC; field++) {
+            String message = messageOf(verdict, field);
+            if (message != null) {
+                result.append(result.length() == 0 ? "" : "; ").append(fieldNames[field]).append(": ").append(message);
+            }
+        }
+        return result.toString();
+    }
+
+    private static int pack(int field, int result) {
+        return result << (field * 3);
+    }
+
+    // Цифры после маски: остальные символы маска отбрасывает, лишние цифры не вводятся
+    private static int digitCount(String value, int maxLength) {
+        if (value == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < value.length() && count < maxLength; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Значение поля из двух цифр после маски или -1, если цифр меньше двух
+    private static int twoDigits(String value) {
+        if (value == null) {
+            return -1;
+        }
+        int result = 0;
+        int count = 0;
+        for (int i = 0; i < value.length() && count < 2; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                result = result * 10 + (c - '0');
+                count++;
+            }
+        }
+        return count == 2 ? result : -1;
+    }
+
+    // Латиница, слова через пробел или дефис
+    private static int owner(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return REQUIRED;
+        }
+        boolean previousLetter = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean letter = c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z';
+            if (!letter && !((c == ' ' || c == '-') && previousLetter)) {
+                return INVALID_FORMAT;
+            }
+            previousLetter = letter;
+        }
+        return previousLetter ? VALID : INVALID_FORMAT;
+    }
+}
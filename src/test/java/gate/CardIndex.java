@@ -0,0 +1,169 @@
+package gate;
+
+import com.google.gson.Gson;
+import data.CardFile;
+import data.CardGenerator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Таблица карт шлюза: номер карты (только цифры) -> статус.
+// Открытая адресация по массивам примитивов, чтобы миллионы карт занимали десятки мегабайт.
+public class CardIndex {
+    private static final String[] statuses = {null, "APPROVED", "DECLINED"};
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+    private byte[] values;
+    private int size;
+
+    public CardIndex() {
+        this(1024);
+    }
+
+    public CardIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new byte[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public static CardIndex fromJson(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            CardEntry[] entries = new Gson().fromJson(reader, CardEntry[].class);
+            CardIndex index = new CardIndex(entries.length);
+            for (CardEntry entry : entries) {
+                index.put(entry.number, entry.status);
+            }
+            return index;
+        }
+    }
+
+    // Файл, созданный CardGenerator: в таблицу попадают только карты со статусом APPROVED или DECLINED
+    public static CardIndex fromCardFile(Path path) throws IOException {
+        CardIndex index = new CardIndex(1 << 20);
+        CardFile.forEachStatus(path, (digits, length, status) -> {
+            if (status != CardGenerator.UNKNOWN) {
+                index.put(toKey(digits, length), status);
+            }
+        });
+        return index;
+    }
+
+    public static CardIndex fromFile(Path path) throws IOException {
+        return path.toString().endsWith(".json") ? fromJson(path) : fromCardFile(path);
+    }
+
+    public void put(String number, String status) {
+        long key = toKey(number);
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Некорректный номер карты: " + number);
+        }
+        put(key, statusCode(status));
+    }
+
+    private void put(long key, byte status) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = slot(key, keys.length);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = status;
+    }
+
+    public String find(String number) {
+        long key = toKey(number);
+        if (key == EMPTY) {
+            return null;
+        }
+        int slot = slot(key, keys.length);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return statuses[values[slot]];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Номер "4444 4444 4444 4441" -> 4444444444444441; пробелы игнорируются, всё остальное делает номер невалидным
+    public static long toKey(CharSequence number) {
+        if (number == null) {
+            return EMPTY;
+        }
+        long key = 0;
+        int digits = 0;
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            if (c < '0' || c > '9' || ++digits > 18) {
+                return EMPTY;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return digits == 0 ? EMPTY : toKey(key, digits);
+    }
+
+    // ведущая единица сохраняет ведущие нули номера
+    public static long toKey(long digits, int length) {
+        return length == 0 || length > 18 ? EMPTY : digits + pow10(length);
+    }
+
+    // коды статусов совпадают с CardGenerator.APPROVED и CardGenerator.DECLINED
+    public static byte statusCode(String status) {
+        for (byte i = 1; i < statuses.length; i++) {
+            if (statuses[i].equals(status)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный статус карты: " + status);
+    }
+
+    private static long pow10(int digits) {
+        long result = 1;
+        for (int i = 0; i < digits; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    private static int slot(long key, int capacity) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (capacity - 1);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new byte[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static class CardEntry {
+        private String number;
+        private String status;
+    }
+}
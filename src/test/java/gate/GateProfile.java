@@ -0,0 +1,45 @@
+package gate;
+
+import java.util.Random;
+
+// Поведение шлюза под нагрузкой: задержка, доля ошибок 500 и доля зависших запросов
+public class GateProfile {
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final long timeoutMillis;
+    private final Random random;
+
+    public GateProfile(LatencyDistribution latency, double errorRate, double timeoutRate, long timeoutMillis, long seed) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.timeoutMillis = timeoutMillis;
+        this.random = new Random(seed);
+    }
+
+    public static GateProfile fromSystemProperties() {
+        return new GateProfile(
+                LatencyDistribution.parse(System.getProperty("gate.latency", "none")),
+                Double.parseDouble(System.getProperty("gate.errorRate", "0")),
+                Double.parseDouble(System.getProperty("gate.timeoutRate", "0")),
+                Long.getLong("gate.timeoutMillis", 30000),
+                Long.getLong("gate.seed", 42));
+    }
+
+    public long nextLatencyMillis() {
+        return Math.max(0, latency.nextMillis(random));
+    }
+
+    public boolean nextIsError() {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    public boolean nextIsTimeout() {
+        return timeoutRate > 0 && random.nextDouble() < timeoutRate;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,156 @@
+package gate;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Прокси между приложением и настоящим шлюзом (gate.upstream): все запросы передаются дальше как есть,
+// а ответы на POST /payment и /credit вместе со временем ответа шлюза пишутся в GateTape порциями, индекс - при закрытии
+public class GateRecorder implements AutoCloseable {
+    private final String upstream;
+    private final GateTape.Writer tape;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Gson gson = new Gson();
+    private final AtomicLong recorded = new AtomicLong();
+
+    public GateRecorder(int port, String upstream, Path tape) throws IOException {
+        this.upstream = upstream.endsWith("/") ? upstream.substring(0, upstream.length() - 1) : upstream;
+        this.tape = new GateTape.Writer(tape);
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "gate-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static GateRecorder fromSystemProperties() throws IOException {
+        return new GateRecorder(Integer.getInteger("gate.port", 9999),
+                System.getProperty("gate.upstream", "http://localhost:9998"),
+                Paths.get(System.getProperty("gate.tape", "build/gate.tape")));
+    }
+
+    public GateRecorder start() {
+        server.start();
+        return this;
+    }
+
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    // Индекс дописывается только после того, как обработчики закончили: иначе tape.add из ещё идущего
+    // запроса попал бы в закрытую запись или её ответ пропал бы из индекса
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        try {
+            tape.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать ответы шлюза", e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            byte[] request = readAll(exchange.getRequestBody());
+            String query = exchange.getRequestURI().getRawQuery();
+            HttpURLConnection connection = (HttpURLConnection) new URL(upstream + path + (query == null ? "" : "?" + query)).openConnection();
+            connection.setRequestMethod(exchange.getRequestMethod());
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType != null) {
+                connection.setRequestProperty("Content-Type", contentType);
+            }
+            long start = System.nanoTime();
+            byte[] response;
+            int code;
+            try {
+                if (request.length > 0) {
+                    connection.setDoOutput(true);
+                    try (OutputStream out = connection.getOutputStream()) {
+                        out.write(request);
+                    }
+                }
+                code = connection.getResponseCode();
+                InputStream body = code < 400 ? connection.getInputStream() : connection.getErrorStream();
+                response = body == null ? new byte[0] : readAll(body);
+            } catch (IOException e) {
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            if (exchange.getRequestMethod().equals("POST") && (path.equals("/payment") || path.equals("/credit"))) {
+                record(path, request, code, response, micros);
+            }
+            String responseType = connection.getContentType();
+            if (responseType != null) {
+                exchange.getResponseHeaders().set("Content-Type", responseType);
+            }
+            exchange.sendResponseHeaders(code, response.length == 0 ? -1 : response.length);
+            if (response.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void record(String path, byte[] request, int code, byte[] response, long micros) throws IOException {
+        JsonObject body = parse(request);
+        if (body == null || !body.has("number")) {
+            return;
+        }
+        JsonObject result = code == 200 ? parse(response) : null;
+        String status = result != null && result.has("status") ? result.get("status").getAsString() : null;
+        tape.add(GateTape.key(path, body.get("number").getAsString()),
+                new GateTape.Entry(code, status, (int) Math.min(micros, Integer.MAX_VALUE)));
+        recorded.incrementAndGet();
+    }
+
+    private JsonObject parse(byte[] json) {
+        try {
+            return gson.fromJson(new String(json, StandardCharsets.UTF_8), JsonObject.class);
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,270 @@
+package gate;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Java-версия artifacts/gate-simulator: тот же контракт POST /payment и /credit ({id, status}, 400 для неизвестной карты)
+// и журнал операций GET /transactions?holder=..., плюс управляемые задержки, ошибки и таймауты.
+// С записью GateTape статусы, коды и задержки берутся из записанных ответов настоящего шлюза
+public class GateSimulator implements AutoCloseable {
+    private final CardIndex cards;
+    private final GateProfile profile;
+    private final GateTape tape;
+    private final boolean recordedLatency;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, List<Operation>> journal = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong unknownCards = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public GateSimulator(int port, CardIndex cards, GateProfile profile) throws IOException {
+        this(port, cards, profile, null, false);
+    }
+
+    // recordedLatency: false - отвечать сразу, true - выдерживать записанное время ответа
+    public GateSimulator(int port, GateTape tape, boolean recordedLatency) throws IOException {
+        this(port, null, null, tape, recordedLatency);
+    }
+
+    private GateSimulator(int port, CardIndex cards, GateProfile profile, GateTape tape, boolean recordedLatency) throws IOException {
+        this.cards = cards;
+        this.profile = profile;
+        this.tape = tape;
+        this.recordedLatency = recordedLatency;
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "gate-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/payment", this::handleOperation);
+        server.createContext("/credit", this::handleOperation);
+        server.createContext("/transactions", this::handleTransactions);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public static GateSimulator fromSystemProperties() throws IOException {
+        if (System.getProperty("gate.mode", "simulate").equals("replay")) {
+            GateTape tape = GateTape.open(Paths.get(System.getProperty("gate.tape", "build/gate.tape")));
+            String timing = System.getProperty("gate.replay", "recorded");
+            if (!timing.equals("recorded") && !timing.equals("instant")) {
+                throw new IllegalArgumentException("gate.replay: ожидается recorded или instant, задано " + timing);
+            }
+            return new GateSimulator(Integer.getInteger("gate.port", 9999), tape, timing.equals("recorded"));
+        }
+        CardIndex cards = CardIndex.fromFile(Paths.get(System.getProperty("gate.cards", "artifacts/gate-simulator/data.json")));
+        return new GateSimulator(Integer.getInteger("gate.port", 9999), cards, GateProfile.fromSystemProperties());
+    }
+
+    public GateSimulator start() {
+        server.start();
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.get());
+        stats.put("unknownCards", unknownCards.get());
+        stats.put("errors", errors.get());
+        stats.put("timeouts", timeouts.get());
+        return stats;
+    }
+
+    // Встроенный шлюз по gate.mode: simulate (по умолчанию), replay или record (прокси к gate.upstream с записью)
+    public static AutoCloseable startFromSystemProperties() throws IOException {
+        String mode = System.getProperty("gate.mode", "simulate");
+        switch (mode) {
+            case "simulate":
+            case "replay":
+                return fromSystemProperties().start();
+            case "record":
+                return GateRecorder.fromSystemProperties().start();
+            default:
+                throw new IllegalArgumentException("gate.mode: ожидается simulate, replay или record, задано " + mode);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        if (tape != null) {
+            try {
+                tape.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void handleOperation(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                send(exchange, 405, null);
+                return;
+            }
+            requests.incrementAndGet();
+            GateRequest request = parse(exchange.getRequestBody());
+            String status = tape == null ? simulate(request, exchange) : replay(request, exchange);
+            if (status == null) {
+                return;
+            }
+            Operation operation = new Operation(UUID.randomUUID().toString(), status, exchange.getRequestURI().getPath());
+            if (request.holder != null) {
+                journal.computeIfAbsent(request.holder, key -> new CopyOnWriteArrayList<>()).add(operation);
+            }
+            send(exchange, 200, new OperationResponse(operation.id, operation.status));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Статус операции или null, если ответ уже отправлен (ошибка, неизвестная карта) или запрос завис
+    private String simulate(GateRequest request, HttpExchange exchange) throws IOException, InterruptedException {
+        if (profile.nextIsTimeout()) {
+            timeouts.incrementAndGet();
+            Thread.sleep(profile.getTimeoutMillis());
+            return null;
+        }
+        Thread.sleep(profile.nextLatencyMillis());
+        if (profile.nextIsError()) {
+            errors.incrementAndGet();
+            send(exchange, 500, null);
+            return null;
+        }
+        String status = request == null ? null : cards.find(request.number);
+        if (status == null) {
+            unknownCards.incrementAndGet();
+            send(exchange, 400, null);
+        }
+        return status;
+    }
+
+    // Незаписанный запрос отвечает 400, как неизвестная карта. id операции выдаётся новый,
+    // иначе повторный прогон записал бы в БД те же transaction_id
+    private String replay(GateRequest request, HttpExchange exchange) throws IOException, InterruptedException {
+        GateTape.Entry entry = request == null ? null : tape.next(GateTape.key(exchange.getRequestURI().getPath(), request.number));
+        if (entry == null) {
+            unknownCards.incrementAndGet();
+            send(exchange, 400, null);
+            return null;
+        }
+        if (recordedLatency) {
+            TimeUnit.MICROSECONDS.sleep(entry.getLatencyMicros());
+        }
+        if (entry.getCode() != 200 || entry.getStatus() == null) {
+            if (entry.getCode() >= 500) {
+                errors.incrementAndGet();
+            }
+            send(exchange, entry.getCode(), null);
+            return null;
+        }
+        return entry.getStatus();
+    }
+
+    private void handleTransactions(HttpExchange exchange) throws IOException {
+        try {
+            String holder = queryParam(exchange, "holder");
+            List<Operation> operations = holder == null ? null : journal.get(holder);
+            send(exchange, 200, operations == null ? Collections.emptyList() : operations);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            send(exchange, 200, getStats());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private GateRequest parse(InputStream body) throws IOException {
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, GateRequest.class);
+        } catch (JsonSyntaxException e) {
+            return null;
+        }
+    }
+
+    private void send(HttpExchange exchange, int code, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(code, -1);
+            return;
+        }
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) throws UnsupportedEncodingException {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0 && pair.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(pair.substring(separator + 1), "UTF-8");
+            }
+        }
+        return null;
+    }
+
+    private static class GateRequest {
+        private String number;
+        private String holder;
+    }
+
+    private static class OperationResponse {
+        private final String id;
+        private final String status;
+
+        private OperationResponse(String id, String status) {
+            this.id = id;
+            this.status = status;
+        }
+    }
+
+    private static class Operation {
+        private final String id;
+        private final String status;
+        private final String path;
+
+        private Operation(String id, String status, String path) {
+            this.id = id;
+            this.status = status;
+            this.path = path;
+        }
+    }
+}
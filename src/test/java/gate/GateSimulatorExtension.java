@@ -0,0 +1,44 @@
+package gate;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Поднимает встроенный шлюз один раз на весь прогон, если задано -Dgate.embedded=true (режим - gate.mode)
+public class GateSimulatorExtension implements BeforeAllCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(GateSimulatorExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (!Boolean.getBoolean("gate.embedded")) {
+            return;
+        }
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(GateSimulator.class, key -> start(), Resource.class);
+    }
+
+    private static Resource start() {
+        try {
+            return new Resource(GateSimulator.startFromSystemProperties());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить симулятор шлюза", e);
+        }
+    }
+
+    private static class Resource implements ExtensionContext.Store.CloseableResource {
+        private final AutoCloseable gate;
+
+        private Resource(AutoCloseable gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void close() throws Exception {
+            gate.close();
+            if (gate instanceof GateRecorder) {
+                System.out.printf("Записано ответов шлюза: %d%n", ((GateRecorder) gate).getRecorded());
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package gate;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Записанные ответы шлюза. Ключ - путь и номер карты ("/payment 4444444444444441"), на ключ хранятся ответы
+// в порядке записи: код, статус и задержка шлюза в микросекундах.
+// Файл: "GTAP", версия, блоки ответов по ключам, индекс и смещение индекса в последних 8 байтах. Запись идёт порциями,
+// поэтому у ключа может быть несколько блоков: в индексе ключ, число блоков и для каждого смещение, число ответов и длина.
+// При воспроизведении по индексу читаются только блоки запрошенных ключей
+public class GateTape implements Closeable {
+    private static final int MAGIC = 0x47544150;
+    private static final int VERSION = 2;
+
+    private final FileChannel channel;
+    private final Map<String, long[]> index;
+    private final Map<String, Entry[]> blocks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+
+    private GateTape(FileChannel channel, Map<String, long[]> index) {
+        this.channel = channel;
+        this.index = index;
+    }
+
+    public static String key(String path, String number) {
+        StringBuilder digits = new StringBuilder(16);
+        if (number != null) {
+            for (int i = 0; i < number.length(); i++) {
+                char c = number.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits.append(c);
+                }
+            }
+        }
+        return path + " " + digits;
+    }
+
+    public static GateTape open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            DataInputStream header = read(channel, 0, 8);
+            if (header.readInt() != MAGIC || header.readInt() != VERSION) {
+                throw new IOException("Файл " + path + " не является записью шлюза версии " + VERSION);
+            }
+            long footer = channel.size() - 8;
+            long indexOffset = read(channel, footer, 8).readLong();
+            DataInputStream in = read(channel, indexOffset, (int) (footer - indexOffset));
+            int keys = in.readInt();
+            Map<String, long[]> index = new HashMap<>(keys * 2);
+            for (int i = 0; i < keys; i++) {
+                String key = in.readUTF();
+                long[] location = new long[in.readInt() * 3];
+                for (int j = 0; j < location.length; j += 3) {
+                    location[j] = in.readLong();
+                    location[j + 1] = in.readInt();
+                    location[j + 2] = in.readInt();
+                }
+                index.put(key, location);
+            }
+            return new GateTape(channel, index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static DataInputStream read(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return new DataInputStream(new ByteArrayInputStream(buffer.array()));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // Следующий записанный ответ для ключа; ответы ключа идут по кругу. null - такой запрос не записывался
+    public Entry next(String key) {
+        Entry[] entries = blocks.computeIfAbsent(key, this::readBlock);
+        if (entries.length == 0) {
+            return null;
+        }
+        int position = cursors.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        return entries[Math.floorMod(position, entries.length)];
+    }
+
+    private Entry[] readBlock(String key) {
+        long[] location = index.get(key);
+        if (location == null) {
+            return new Entry[0];
+        }
+        int count = 0;
+        for (int j = 0; j < location.length; j += 3) {
+            count += location[j + 1];
+        }
+        try {
+            Entry[] entries = new Entry[count];
+            int i = 0;
+            for (int j = 0; j < location.length; j += 3) {
+                DataInputStream in = read(channel, location[j], (int) location[j + 2]);
+                for (int k = 0; k < location[j + 1]; k++) {
+                    entries[i++] = Entry.read(in);
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static class Entry {
+        private final int code;
+        private final String status;
+        private final int latencyMicros;
+
+        public Entry(int code, String status, int latencyMicros) {
+            this.code = code;
+            this.status = status;
+            this.latencyMicros = latencyMicros;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public int getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeShort(code);
+            out.writeUTF(status == null ? "" : status);
+            out.writeInt(latencyMicros);
+        }
+
+        private static Entry read(DataInputStream in) throws IOException {
+            int code = in.readUnsignedShort();
+            String status = in.readUTF();
+            return new Entry(code, status.isEmpty() ? null : status, in.readInt());
+        }
+    }
+
+    // Пишет ответы порциями: каждые flushEntries ответов сбрасываются в файл блоками по ключам, в памяти остаются
+    // только ещё не записанные ответы и индекс. Индекс и его смещение дописываются при close, до этого файл не читается
+    public static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final int flushEntries;
+        private final Map<String, List<Entry>> pending = new TreeMap<>();
+        private final Map<String, List<long[]>> blocks = new TreeMap<>();
+        private int pendingCount;
+        private long position;
+
+        public Writer(Path path) throws IOException {
+            this(path, 10_000);
+        }
+
+        public Writer(Path path, int flushEntries) throws IOException {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.flushEntries = flushEntries;
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = 8;
+        }
+
+        public synchronized void add(String key, Entry entry) throws IOException {
+            pending.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+            if (++pendingCount >= flushEntries) {
+                flushPending();
+            }
+        }
+
+        private void flushPending() throws IOException {
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            for (Map.Entry<String, List<Entry>> entries : pending.entrySet()) {
+                block.reset();
+                DataOutputStream blockOut = new DataOutputStream(block);
+                for (Entry entry : entries.getValue()) {
+                    entry.write(blockOut);
+                }
+                block.writeTo(out);
+                blocks.computeIfAbsent(entries.getKey(), k -> new ArrayList<>())
+                        .add(new long[]{position, entries.getValue().size(), block.size()});
+                position += block.size();
+            }
+            pending.clear();
+            pendingCount = 0;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                flushPending();
+                out.writeInt(blocks.size());
+                for (Map.Entry<String, List<long[]>> key : blocks.entrySet()) {
+                    out.writeUTF(key.getKey());
+                    out.writeInt(key.getValue().size());
+                    for (long[] block : key.getValue()) {
+                        out.writeLong(block[0]);
+                        out.writeInt((int) block[1]);
+                        out.writeInt((int) block[2]);
+                    }
+                }
+                out.writeLong(position);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package gate;
+
+import java.util.Random;
+
+// Задержка ответа шлюза. Формат: none | fixed:50 | uniform:10-200 | exponential:50 | lognormal:50:0.8
+// (для exponential - среднее, для lognormal - медиана и sigma, всё в миллисекундах)
+public interface LatencyDistribution {
+
+    long nextMillis(Random random);
+
+    static LatencyDistribution parse(String spec) {
+        if (spec == null || spec.isEmpty() || spec.equals("none")) {
+            return random -> 0;
+        }
+        String[] parts = spec.split(":");
+        try {
+            switch (parts[0]) {
+                case "fixed":
+                    long fixed = Long.parseLong(parts[1]);
+                    return random -> fixed;
+                case "uniform":
+                    String[] bounds = parts[1].split("-");
+                    long min = Long.parseLong(bounds[0]);
+                    long max = Long.parseLong(bounds[1]);
+                    return random -> min + (long) (random.nextDouble() * (max - min + 1));
+                case "exponential":
+                    double mean = Double.parseDouble(parts[1]);
+                    return random -> (long) (-mean * Math.log(1 - random.nextDouble()));
+                case "lognormal":
+                    double median = Double.parseDouble(parts[1]);
+                    double sigma = Double.parseDouble(parts[2]);
+                    return random -> (long) (median * Math.exp(sigma * random.nextGaussian()));
+                default:
+                    throw new IllegalArgumentException("Неизвестное распределение задержки: " + spec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное распределение задержки: " + spec, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Задержки (мкс), исходы и пропускная способность по секундам для одного эндпоинта
+public class EndpointStats {
+    private final String name;
+    private final long runStartNanos;
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final AtomicLongArray perSecond;
+
+    public EndpointStats(String name, long runStartNanos, int seconds) {
+        this.name = name;
+        this.runStartNanos = runStartNanos;
+        this.perSecond = new AtomicLongArray(seconds + 1);
+    }
+
+    public void record(long startNanos, long endNanos, String outcome) {
+        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos));
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        int second = (int) TimeUnit.NANOSECONDS.toSeconds(endNanos - runStartNanos);
+        perSecond.incrementAndGet(Math.min(second, perSecond.length() - 1));
+    }
+
+    public void recordDropped() {
+        outcomes.computeIfAbsent("DROPPED", key -> new LongAdder()).increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getOutcome(String outcome) {
+        LongAdder adder = outcomes.get(outcome);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public Map<String, Long> getOutcomes() {
+        Map<String, Long> result = new TreeMap<>();
+        outcomes.forEach((key, value) -> result.put(key, value.sum()));
+        return result;
+    }
+
+    public long getPerSecond(int second) {
+        return second < perSecond.length() ? perSecond.get(second) : 0;
+    }
+}
@@ -0,0 +1,45 @@
+package load;
+
+import lombok.Value;
+
+// Параметры нагрузки, задаются системными свойствами load.*
+@Value
+public class LoadConfig {
+    // open - фиксированная интенсивность запросов, closed - фиксированное число пользователей
+    private String mode;
+    private int rate;
+    private int users;
+    private int durationSeconds;
+    private double creditShare;
+    private double approvedShare;
+    private double declinedShare;
+    private int maxConnections;
+    private int maxInFlight;
+    private int timeoutMillis;
+    private long seed;
+    private String cardsFile;
+    private int cardPool;
+    private String reportDir;
+
+    public static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+                System.getProperty("load.mode", "closed"),
+                Integer.getInteger("load.rate", 50),
+                Integer.getInteger("load.users", 10),
+                Integer.getInteger("load.duration", 60),
+                Double.parseDouble(System.getProperty("load.creditShare", "0.5")),
+                Double.parseDouble(System.getProperty("load.approvedShare", "0.8")),
+                Double.parseDouble(System.getProperty("load.declinedShare", "0.15")),
+                Integer.getInteger("load.maxConnections", 200),
+                Integer.getInteger("load.maxInFlight", 10000),
+                Integer.getInteger("load.timeoutMillis", 30000),
+                Long.getLong("load.seed", 42),
+                System.getProperty("load.cards"),
+                Integer.getInteger("load.cardPool", 1000),
+                System.getProperty("load.reportDir", "build/load"));
+    }
+
+    public boolean isOpenLoop() {
+        return mode.equals("open");
+    }
+}
@@ -0,0 +1,96 @@
+package load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Итог прогона: перцентили задержек, исходы, пропускная способность по секундам и сверка с БД
+public class LoadReport {
+    private static final double[] percentiles = {50, 90, 99, 99.9};
+
+    private final LoadConfig config;
+    private final long elapsedNanos;
+    private final List<EndpointStats> endpoints;
+    private final Map<String, Long> rowsBefore;
+    private final Map<String, Long> rowsAfter;
+
+    public LoadReport(LoadConfig config, long elapsedNanos, EndpointStats payment, EndpointStats credit,
+                      Map<String, Long> rowsBefore, Map<String, Long> rowsAfter) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.endpoints = Arrays.asList(payment, credit);
+        this.rowsBefore = rowsBefore;
+        this.rowsAfter = rowsAfter;
+    }
+
+    public EndpointStats getEndpoint(String name) {
+        return endpoints.stream().filter(stats -> stats.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("Режим: %s, %s, %.1f с%n", config.getMode(),
+                config.isOpenLoop() ? config.getRate() + " запр/с" : config.getUsers() + " пользователей", seconds);
+        out.printf("%-8s %8s %8s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "count", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes");
+        for (EndpointStats stats : endpoints) {
+            Histogram latency = stats.getLatency();
+            out.printf("%-8s %8d %8.1f", stats.getName(), latency.getTotalCount(), latency.getTotalCount() / seconds);
+            for (double percentile : percentiles) {
+                out.printf(" %9.1f", latency.getValueAtPercentile(percentile) / 1000.0);
+            }
+            out.printf(" %9.1f  %s%n", latency.getMaxValue() / 1000.0, stats.getOutcomes());
+        }
+        printReconciliation(out);
+    }
+
+    private void printReconciliation(PrintStream out) {
+        if (rowsBefore.isEmpty()) {
+            out.println("Сверка с БД пропущена: не задан db.url");
+            return;
+        }
+        EndpointStats payment = getEndpoint("payment");
+        EndpointStats credit = getEndpoint("credit");
+        long payments = payment.getOutcome("APPROVED") + payment.getOutcome("DECLINED");
+        long credits = credit.getOutcome("APPROVED") + credit.getOutcome("DECLINED");
+        out.println("Сверка с БД (прирост строк / ожидалось по ответам):");
+        printRow(out, "payment_entity", payments);
+        printRow(out, "credit_request_entity", credits);
+        printRow(out, "order_entity", payments + credits);
+    }
+
+    private void printRow(PrintStream out, String table, long expected) {
+        long added = rowsAfter.get(table) - rowsBefore.get(table);
+        out.printf("  %-22s %8d / %8d%s%n", table, added, expected, added == expected ? "" : "  РАСХОЖДЕНИЕ");
+    }
+
+    public void write(String dir) throws IOException {
+        Path reportDir = Paths.get(dir);
+        Files.createDirectories(reportDir);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve("report.txt")), true, "UTF-8")) {
+            print(out);
+        }
+        for (EndpointStats stats : endpoints) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(stats.getName() + ".hgrm")), true, "UTF-8")) {
+                stats.getLatency().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        StringBuilder csv = new StringBuilder("second,payment,credit\n");
+        int seconds = (int) TimeUnit.NANOSECONDS.toSeconds(elapsedNanos) + 1;
+        for (int second = 0; second < seconds; second++) {
+            csv.append(second).append(',')
+                    .append(getEndpoint("payment").getPerSecond(second)).append(',')
+                    .append(getEndpoint("credit").getPerSecond(second)).append('\n');
+        }
+        Files.write(reportDir.resolve("throughput.csv"), csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,252 @@
+package load;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import data.ApiHelper;
+import data.Card;
+import data.CardFile;
+import data.CardRecord;
+import data.SQLHelper;
+import gate.GateSimulator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static data.DataGenerator.*;
+
+// Нагрузка на /api/v1/pay и /api/v1/credit через асинхронный HTTP-клиент.
+// open: запросы уходят по расписанию, задержка считается от запланированного момента (без coordinated omission);
+// closed: каждый из N пользователей отправляет следующий запрос сразу после ответа на предыдущий.
+public class LoadRunner {
+    private final LoadConfig config;
+    private final Random random;
+    private final Gson gson = new Gson();
+    private final List<byte[]> paymentBodies = new ArrayList<>();
+    private final List<byte[]> creditBodies = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private CloseableHttpAsyncClient client;
+    private EndpointStats paymentStats;
+    private EndpointStats creditStats;
+    private long endNanos;
+
+    public LoadRunner(LoadConfig config) {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.fromSystemProperties();
+        AutoCloseable gate = Boolean.getBoolean("gate.embedded") ? GateSimulator.startFromSystemProperties() : null;
+        try {
+            LoadReport report = new LoadRunner(config).run();
+            report.print(System.out);
+            report.write(config.getReportDir());
+        } finally {
+            if (gate != null) {
+                gate.close();
+            }
+        }
+    }
+
+    public LoadReport run() throws IOException, InterruptedException {
+        prepareBodies();
+        Map<String, Long> rowsBefore = countRows();
+        client = HttpAsyncClients.custom()
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnections())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(config.getTimeoutMillis())
+                        .setSocketTimeout(config.getTimeoutMillis())
+                        .build())
+                .build();
+        client.start();
+        try {
+            long startNanos = System.nanoTime();
+            endNanos = startNanos + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+            paymentStats = new EndpointStats("payment", startNanos, config.getDurationSeconds());
+            creditStats = new EndpointStats("credit", startNanos, config.getDurationSeconds());
+            if (config.isOpenLoop()) {
+                runOpenLoop(startNanos);
+            } else {
+                runClosedLoop();
+            }
+            awaitInFlight();
+            long elapsedNanos = System.nanoTime() - startNanos;
+            return new LoadReport(config, elapsedNanos, paymentStats, creditStats, rowsBefore, countRows());
+        } finally {
+            client.close();
+        }
+    }
+
+    private void runOpenLoop(long startNanos) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+        for (long i = 0; ; i++) {
+            long intended = startNanos + i * intervalNanos;
+            if (intended >= endNanos) {
+                return;
+            }
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            boolean credit = random.nextDouble() < config.getCreditShare();
+            if (inFlight.get() >= config.getMaxInFlight()) {
+                (credit ? creditStats : paymentStats).recordDropped();
+                continue;
+            }
+            send(credit, intended, null);
+        }
+    }
+
+    private void runClosedLoop() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(config.getUsers());
+        for (int i = 0; i < config.getUsers(); i++) {
+            sendNextOrFinish(finished);
+        }
+        finished.await();
+    }
+
+    private void sendNextOrFinish(CountDownLatch finished) {
+        long now = System.nanoTime();
+        if (now >= endNanos) {
+            finished.countDown();
+            return;
+        }
+        boolean credit;
+        synchronized (random) {
+            credit = random.nextDouble() < config.getCreditShare();
+        }
+        send(credit, now, () -> sendNextOrFinish(finished));
+    }
+
+    private void send(boolean credit, long startNanos, Runnable next) {
+        EndpointStats stats = credit ? creditStats : paymentStats;
+        List<byte[]> bodies = credit ? creditBodies : paymentBodies;
+        byte[] body = bodies.get(Math.floorMod(sequence.getAndIncrement(), bodies.size()));
+        HttpPost post = new HttpPost(ApiHelper.sutUrl + (credit ? ApiHelper.creditPath : ApiHelper.paymentPath));
+        post.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        inFlight.incrementAndGet();
+        client.execute(post, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                finish(stats, startNanos, outcome(response), next);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                finish(stats, startNanos, e instanceof SocketTimeoutException ? "TIMEOUT" : "ERROR", next);
+            }
+
+            @Override
+            public void cancelled() {
+                finish(stats, startNanos, "CANCELLED", next);
+            }
+        });
+    }
+
+    private void finish(EndpointStats stats, long startNanos, String outcome, Runnable next) {
+        stats.record(startNanos, System.nanoTime(), outcome);
+        inFlight.decrementAndGet();
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private String outcome(HttpResponse response) {
+        int code = response.getStatusLine().getStatusCode();
+        try {
+            String body = response.getEntity() == null ? null : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            if (code != 200 || body == null) {
+                return "HTTP_" + code;
+            }
+            Map<?, ?> json = gson.fromJson(body, Map.class);
+            Object status = json == null ? null : json.get("status");
+            return status == null ? "HTTP_" + code : status.toString();
+        } catch (IOException | JsonSyntaxException e) {
+            return "HTTP_" + code;
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getTimeoutMillis());
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Заранее сериализованные тела запросов: генерация данных не должна попадать в измеряемое время.
+    // Карты берутся из файла CardGenerator (load.cards), если он задан, иначе из DataGenerator.
+    private void prepareBodies() throws IOException {
+        if (config.getCardsFile() != null) {
+            try (Stream<CardRecord> records = CardFile.read(Paths.get(config.getCardsFile()))) {
+                Iterator<CardRecord> iterator = records.limit(2L * config.getCardPool()).iterator();
+                while (iterator.hasNext()) {
+                    (paymentBodies.size() <= creditBodies.size() ? paymentBodies : creditBodies).add(toBody(iterator.next().getCard()));
+                }
+            }
+            if (creditBodies.isEmpty()) {
+                throw new IllegalStateException("В файле карт меньше двух записей: " + config.getCardsFile());
+            }
+            return;
+        }
+        for (int i = 0; i < config.getCardPool(); i++) {
+            paymentBodies.add(toBody(nextCard()));
+            creditBodies.add(toBody(nextCard()));
+        }
+    }
+
+    private Card nextCard() {
+        double roll = random.nextDouble();
+        Card card = new Card();
+        if (roll < config.getApprovedShare()) {
+            card.setNumber("4444 4444 4444 4441");
+        } else if (roll < config.getApprovedShare() + config.getDeclinedShare()) {
+            card.setNumber("4444 4444 4444 4442");
+        } else {
+            card.setNumber("4444 4444 4444 4444");
+        }
+        card.setMonth("01");
+        card.setYear(getCorrectYear());
+        card.setOwner(getUniqueOwner());
+        card.setCvc(getRandomCvc());
+        return card;
+    }
+
+    private byte[] toBody(Card card) {
+        return gson.toJson(ApiHelper.toRequestBody(card)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Long> countRows() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        if (System.getProperty("db.url") == null) {
+            return rows;
+        }
+        try {
+            for (String table : Arrays.asList("order_entity", "payment_entity", "credit_request_entity")) {
+                rows.put(table, SQLHelper.countRows(table));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось посчитать строки в БД", e);
+        }
+        return rows;
+    }
+}
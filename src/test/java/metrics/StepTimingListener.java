@@ -0,0 +1,37 @@
+package metrics;
+
+import com.codeborne.selenide.logevents.LogEvent;
+import com.codeborne.selenide.logevents.LogEventListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Замеряет каждое действие Selenide. Слушатели Selenide привязаны к потоку, поэтому стек без синхронизации
+public class StepTimingListener implements LogEventListener {
+    private final Deque<Long> started = new ArrayDeque<>();
+
+    @Override
+    public void beforeEvent(LogEvent currentLog) {
+        started.push(System.nanoTime());
+    }
+
+    @Override
+    public void afterEvent(LogEvent currentLog) {
+        if (started.isEmpty()) {
+            return;
+        }
+        StepTimings.record(stepName(currentLog), System.nanoTime() - started.pop());
+    }
+
+    // Аргументы действия (введённый текст, номер карты) в имя не попадают, иначе шаги не сгруппируются
+    static String stepName(LogEvent event) {
+        String subject = event.getSubject() == null ? "" : event.getSubject();
+        int bracket = subject.indexOf('(');
+        String action = (bracket < 0 ? subject : subject.substring(0, bracket)).trim();
+        String element = event.getElement() == null ? "" : event.getElement();
+        if ("open".equals(element)) {
+            return "ui: open";
+        }
+        return "ui: " + action + " " + element;
+    }
+}
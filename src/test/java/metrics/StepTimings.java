@@ -0,0 +1,130 @@
+package metrics;
+
+import com.google.gson.GsonBuilder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Накопленное за прогон время шагов (мкс): действия Selenide, запросы к БД, ожидания
+public class StepTimings {
+    private static final Map<String, Histogram> steps = new ConcurrentHashMap<>();
+    private static final List<Sink> sinks = new CopyOnWriteArrayList<>();
+
+    // Получает каждый шаг сразу после записи, например чтобы выпустить событие JFR
+    public interface Sink {
+        void record(String step, long nanos);
+    }
+
+    private StepTimings() {
+    }
+
+    public static void record(String step, long nanos) {
+        steps.computeIfAbsent(step, key -> new ConcurrentHistogram(3))
+                .recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0)));
+        for (Sink sink : sinks) {
+            sink.record(step, nanos);
+        }
+    }
+
+    public static void addSink(Sink sink) {
+        sinks.add(sink);
+    }
+
+    public static void removeSink(Sink sink) {
+        sinks.remove(sink);
+    }
+
+    public static boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    public static void reset() {
+        steps.clear();
+    }
+
+    // Шаги по убыванию суммарного времени: сначала то, на что уходит больше всего прогона
+    public static List<Map.Entry<String, Histogram>> slowest() {
+        List<Map.Entry<String, Histogram>> result = new ArrayList<>();
+        steps.forEach((step, histogram) -> result.add(new AbstractMap.SimpleImmutableEntry<>(step, histogram.copy())));
+        result.sort(Comparator.comparingDouble(
+                (Map.Entry<String, Histogram> entry) -> total(entry.getValue())).reversed());
+        return result;
+    }
+
+    public static void printTable(PrintStream out, int limit) {
+        out.printf("%10s %7s %9s %9s %9s %9s %9s  %s%n",
+                "total ms", "count", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms", "step");
+        slowest().stream().limit(limit).forEach(entry -> {
+            Histogram histogram = entry.getValue();
+            out.printf("%10.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    total(histogram) / 1000.0, histogram.getTotalCount(), histogram.getMean() / 1000.0,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(95) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0, histogram.getMaxValue() / 1000.0, entry.getKey());
+        });
+    }
+
+    public static String table(int limit) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(buffer, true, "UTF-8")) {
+            printTable(out, limit);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // step-timings.json для разбора скриптами и step-timings.prom в формате summary для Prometheus/pushgateway
+    public static void export(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        List<Map.Entry<String, Histogram>> slowest = slowest();
+        List<Map<String, Object>> json = new ArrayList<>();
+        StringBuilder prom = new StringBuilder()
+                .append("# HELP test_step_duration_seconds Длительность шагов автотестов\n")
+                .append("# TYPE test_step_duration_seconds summary\n");
+        for (Map.Entry<String, Histogram> entry : slowest) {
+            Histogram histogram = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("step", entry.getKey());
+            row.put("count", histogram.getTotalCount());
+            row.put("totalMillis", total(histogram) / 1000.0);
+            row.put("meanMillis", histogram.getMean() / 1000.0);
+            row.put("p50Millis", histogram.getValueAtPercentile(50) / 1000.0);
+            row.put("p95Millis", histogram.getValueAtPercentile(95) / 1000.0);
+            row.put("p99Millis", histogram.getValueAtPercentile(99) / 1000.0);
+            row.put("maxMillis", histogram.getMaxValue() / 1000.0);
+            json.add(row);
+
+            String label = "step=\"" + escape(entry.getKey()) + "\"";
+            for (double quantile : new double[]{0.5, 0.95, 0.99}) {
+                prom.append("test_step_duration_seconds{").append(label).append(",quantile=\"").append(quantile)
+                        .append("\"} ").append(histogram.getValueAtPercentile(quantile * 100) / 1e6).append('\n');
+            }
+            prom.append("test_step_duration_seconds_sum{").append(label).append("} ")
+                    .append(total(histogram) / 1e6).append('\n');
+            prom.append("test_step_duration_seconds_count{").append(label).append("} ")
+                    .append(histogram.getTotalCount()).append('\n');
+        }
+        Files.write(dir.resolve("step-timings.json"),
+                new GsonBuilder().setPrettyPrinting().create().toJson(json).getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("step-timings.prom"), prom.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static double total(Histogram histogram) {
+        return histogram.getMean() * histogram.getTotalCount();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,79 @@
+package metrics;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.listener.TestLifecycleListener;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+// По завершении прогона выгружает время шагов в timings.dir и прикладывает таблицу самых медленных шагов к Allure
+public class StepTimingsReporter implements TestExecutionListener {
+    private static final int tableSize = 30;
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (StepTimings.isEmpty()) {
+            return;
+        }
+        try {
+            StepTimings.export(Paths.get(System.getProperty("timings.dir", "build/step-timings")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String table = StepTimings.table(tableSize);
+        System.out.print(table);
+        attachToAllure(table);
+    }
+
+    // Таблица - шаг завершения отдельного контейнера «Время шагов», в который входят все тесты прогона:
+    // отдельный выдуманный тест исказил бы число тестов и статистику прохождения в отчёте
+    private static void attachToAllure(String table) {
+        List<String> tests = RunTests.snapshot();
+        if (tests.isEmpty()) {
+            return;
+        }
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String container = UUID.randomUUID().toString();
+        String fixture = UUID.randomUUID().toString();
+        lifecycle.startTestContainer(new TestResultContainer()
+                .setUuid(container)
+                .setName("Время шагов")
+                .setChildren(tests));
+        lifecycle.startTearDownFixture(container, fixture, new FixtureResult()
+                .setName("Время шагов")
+                .setStatus(Status.PASSED));
+        lifecycle.addAttachment("Самые медленные шаги", "text/plain", "txt", table.getBytes(StandardCharsets.UTF_8));
+        lifecycle.stopFixture(fixture);
+        lifecycle.stopTestContainer(container);
+        lifecycle.writeTestContainer(container);
+    }
+
+    // Подключается через META-INF/services/io.qameta.allure.listener.TestLifecycleListener
+    public static class RunTests implements TestLifecycleListener {
+        private static final List<String> uuids = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void afterTestWrite(TestResult result) {
+            uuids.add(result.getUuid());
+        }
+
+        private static List<String> snapshot() {
+            synchronized (uuids) {
+                return new ArrayList<>(uuids);
+            }
+        }
+    }
+}
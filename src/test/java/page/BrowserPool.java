@@ -0,0 +1,186 @@
+package page;
+
+import com.codeborne.selenide.WebDriverRunner;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import metrics.StepTimings;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пул заранее запущенных headless-сессий Chrome. Между тестами сессия не закрывается, а очищается
+// (cookies, localStorage, sessionStorage), после browser.pool.maxUses тестов или неудачной проверки - пересоздаётся
+public class BrowserPool {
+    private static final String resetStorage =
+            "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}";
+    private static final String heapSize =
+            "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : -1;";
+
+    private final int size;
+    private final int maxUses;
+    private final boolean headless;
+    private final BlockingQueue<Session> idle = new LinkedBlockingQueue<>();
+    private final List<Session> all = new CopyOnWriteArrayList<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger recycled = new AtomicInteger();
+    private final AtomicInteger unhealthy = new AtomicInteger();
+    private final AtomicLong startupNanos = new AtomicLong();
+    private final Map<Integer, Long> heapBytes = new ConcurrentSkipListMap<>();
+
+    public BrowserPool(int size, int maxUses, boolean headless) {
+        this.size = size;
+        this.maxUses = maxUses;
+        this.headless = headless;
+    }
+
+    // workers - потоков параллельного прогона по настройке JUnit, по умолчанию по одной сессии на поток
+    public static BrowserPool fromSystemProperties(int workers) {
+        return new BrowserPool(Integer.getInteger("browser.pool.size", workers),
+                Integer.getInteger("browser.pool.maxUses", 50),
+                !"false".equals(System.getProperty("selenide.headless")));
+    }
+
+    public void warmUp() {
+        WebDriverManager.chromedriver().setup();
+        ExecutorService starter = Executors.newFixedThreadPool(size);
+        try {
+            List<Future<Session>> sessions = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                sessions.add(starter.submit(this::start));
+            }
+            for (Future<Session> session : sessions) {
+                idle.add(session.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прогрев пула браузеров прерван", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Не удалось запустить браузер для пула", e.getCause());
+        } finally {
+            starter.shutdown();
+        }
+    }
+
+    // Привязывает к текущему потоку свободную живую сессию, при необходимости запускает новую
+    public Session acquire() {
+        Session session = idle.poll();
+        while (session != null && !session.isHealthy()) {
+            unhealthy.incrementAndGet();
+            quit(session);
+            session = idle.poll();
+        }
+        if (session == null) {
+            session = start();
+        } else {
+            reused.incrementAndGet();
+        }
+        WebDriverRunner.setWebDriver(session.driver);
+        return session;
+    }
+
+    public void release(Session session) {
+        session.uses++;
+        heapBytes.put(session.id, session.heapBytes());
+        if (session.uses >= maxUses || !session.reset()) {
+            recycled.incrementAndGet();
+            // Сессия привязана к потоку в acquire: отвязываем её (closeWebDriver заодно закрывает браузер),
+            // иначе следующий вызов Selenide в этом потоке попадёт в закрытую сессию
+            WebDriverRunner.closeWebDriver();
+            quit(session);
+            return;
+        }
+        idle.add(session);
+    }
+
+    public void close() {
+        for (Session session : all) {
+            quit(session);
+        }
+        idle.clear();
+    }
+
+    private Session start() {
+        ChromeOptions options = new ChromeOptions()
+                .setHeadless(headless)
+                .addArguments("--window-size=1366,768", "--disable-gpu", "--disable-extensions");
+        long start = System.nanoTime();
+        Session session = new Session(created.incrementAndGet(), new ChromeDriver(options));
+        // Первая загрузка приложения прогревает кеш браузера, тесты открывают страницу уже «тёплой»
+        session.driver.get(StartPage.url);
+        long elapsed = System.nanoTime() - start;
+        startupNanos.addAndGet(elapsed);
+        StepTimings.record("browser: startup", elapsed);
+        all.add(session);
+        return session;
+    }
+
+    private void quit(Session session) {
+        all.remove(session);
+        try {
+            session.driver.quit();
+        } catch (WebDriverException ignored) {
+            // Браузер уже упал, закрывать нечего
+        }
+    }
+
+    // Сэкономлено: каждое повторное использование сессии вместо запуска нового браузера
+    public void printReport(PrintStream out) {
+        int starts = created.get();
+        double avgStartupMillis = starts == 0 ? 0 : startupNanos.get() / 1e6 / starts;
+        out.printf("Пул браузеров: %d запусков (в среднем %.0f мс), %d повторных использований, %d пересозданий, %d неисправных%n",
+                starts, avgStartupMillis, reused.get(), recycled.get(), unhealthy.get());
+        out.printf("Сэкономлено на запуске браузера: %.1f с%n", reused.get() * avgStartupMillis / 1000);
+        heapBytes.forEach((id, bytes) -> out.printf("  сессия %d: JS heap %s%n", id,
+                bytes < 0 ? "недоступно" : String.format("%.1f МБ", bytes / 1048576.0)));
+    }
+
+    public static class Session {
+        private final int id;
+        private final WebDriver driver;
+        private int uses;
+
+        private Session(int id, WebDriver driver) {
+            this.id = id;
+            this.driver = driver;
+        }
+
+        private boolean isHealthy() {
+            try {
+                driver.getWindowHandle();
+                return ((JavascriptExecutor) driver).executeScript("return 1;") != null;
+            } catch (WebDriverException e) {
+                return false;
+            }
+        }
+
+        // Хранилища очищаются на странице приложения, чтобы попасть в его origin; страница остаётся открытой
+        private boolean reset() {
+            try {
+                driver.manage().deleteAllCookies();
+                ((JavascriptExecutor) driver).executeScript(resetStorage);
+                return true;
+            } catch (WebDriverException e) {
+                return false;
+            }
+        }
+
+        private long heapBytes() {
+            try {
+                Object bytes = ((JavascriptExecutor) driver).executeScript(heapSize);
+                return bytes instanceof Number ? ((Number) bytes).longValue() : -1;
+            } catch (WebDriverException e) {
+                return -1;
+            }
+        }
+    }
+}
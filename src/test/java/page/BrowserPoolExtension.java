@@ -0,0 +1,63 @@
+package page;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+// С -Dbrowser.pool=true каждый тест получает тёплую сессию из общего пула вместо браузера Selenide по умолчанию
+public class BrowserPoolExtension implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(BrowserPoolExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (!Boolean.getBoolean("browser.pool")) {
+            return;
+        }
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(BrowserPool.class, key -> start(context), Resource.class);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        Resource resource = context.getRoot().getStore(NAMESPACE).get(BrowserPool.class, Resource.class);
+        if (resource != null) {
+            context.getStore(NAMESPACE).put(BrowserPool.Session.class, resource.pool.acquire());
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Resource resource = context.getRoot().getStore(NAMESPACE).get(BrowserPool.class, Resource.class);
+        BrowserPool.Session session = context.getStore(NAMESPACE).remove(BrowserPool.Session.class, BrowserPool.Session.class);
+        if (resource != null && session != null) {
+            resource.pool.release(session);
+        }
+    }
+
+    // Параллельность - из конфигурации JUnit: она учитывает и junit-platform.properties, а не только системные свойства
+    private static Resource start(ExtensionContext context) {
+        boolean parallel = context.getConfigurationParameter("junit.jupiter.execution.parallel.enabled")
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+        int workers = parallel ? context.getConfigurationParameter("junit.jupiter.execution.parallel.config.fixed.parallelism")
+                .map(Integer::parseInt)
+                .orElse(4) : 1;
+        BrowserPool pool = BrowserPool.fromSystemProperties(workers);
+        pool.warmUp();
+        return new Resource(pool);
+    }
+
+    private static class Resource implements ExtensionContext.Store.CloseableResource {
+        private final BrowserPool pool;
+
+        private Resource(BrowserPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void close() {
+            pool.printReport(System.out);
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package page;
+
+import com.codeborne.selenide.CollectionCondition;
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.ElementsCollection;
+import com.codeborne.selenide.SelenideElement;
+import data.Card;
+import metrics.StepTimings;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.codeborne.selenide.Selectors.byCssSelector;
+import static com.codeborne.selenide.Selenide.*;
+
+// Общая часть форм оплаты и кредита. Поля и кнопка находятся одним скриптом и кешируются, форма заполняется
+// одним скриптом: нативный сеттер value и события input/change, на которые завязана валидация приложения.
+// -Dform.fill=keys возвращает посимвольный ввод через setValue
+public abstract class CardForm {
+    private static final boolean typeKeys = "keys".equals(System.getProperty("form.fill"));
+    private static final List<String> labels = Arrays.asList("Номер карты", "Месяц", "Год", "Владелец", "CVC/CVV");
+    private static final String findFields =
+            "function byText(text) {" +
+            "  return document.evaluate(\"//*/text()[normalize-space(.) = '\" + text + \"']/parent::*\", document, null," +
+            "      XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "}" +
+            "var result = arguments[0].map(function (label) {" +
+            "  var element = byText(label);" +
+            "  return element ? element.parentNode.querySelector('.input__control') : null;" +
+            "});" +
+            "var button = byText('Продолжить');" +
+            "result.push(button ? button.parentNode.parentNode : null);" +
+            "return result;";
+    private static final String fillFields =
+            "var fields = arguments[0], values = arguments[1];" +
+            "var setter = Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'value').set;" +
+            "for (var i = 0; i < fields.length; i++) {" +
+            "  fields[i].focus();" +
+            "  setter.call(fields[i], values[i] == null ? '' : values[i]);" +
+            "  fields[i].dispatchEvent(new Event('input', {bubbles: true}));" +
+            "  fields[i].dispatchEvent(new Event('change', {bubbles: true}));" +
+            "  fields[i].blur();" +
+            "}";
+    private static final String readErrors =
+            "return arguments[0].map(function (field) {" +
+            "  for (var element = field; element && element.querySelectorAll('.input__control').length <= 1;" +
+            "       element = element.parentElement) {" +
+            "    var sub = element.querySelector('.input__sub');" +
+            "    if (sub) return sub.textContent.trim();" +
+            "  }" +
+            "  return null;" +
+            "});";
+
+    private SelenideElement header = $(By.cssSelector("h3"));
+    private SelenideElement notificationOK = $(byCssSelector(".notification_status_ok"));
+    private SelenideElement notificationError = $(byCssSelector(".notification_status_error"));
+    private SelenideElement inputInvalid = $(".input__sub");
+    private ElementsCollection inputsInvalid = $$(".input__sub");
+    private List<WebElement> controls;
+
+    protected CardForm() {
+        header.shouldBe(Condition.visible);
+    }
+
+    public void fillData(Card card) {
+        long start = System.nanoTime();
+        fill(Arrays.asList(card.getNumber(), card.getMonth(), card.getYear(), card.getOwner(), card.getCvc()));
+        StepTimings.record("ui: fill form", System.nanoTime() - start);
+        $(getControls().get(labels.size())).click();
+    }
+
+    public void cleanData() {
+        if (typeKeys) {
+            for (WebElement field : getFields()) {
+                $(field).sendKeys(Keys.chord(Keys.CONTROL, "a"), Keys.DELETE);
+            }
+            return;
+        }
+        fill(Arrays.asList("", "", "", "", ""));
+    }
+
+    private void fill(List<String> values) {
+        if (typeKeys) {
+            List<WebElement> fields = getFields();
+            for (int i = 0; i < fields.size(); i++) {
+                $(fields.get(i)).setValue(values.get(i));
+            }
+            return;
+        }
+        try {
+            executeJavaScript(fillFields, getFields(), values);
+        } catch (StaleElementReferenceException e) {
+            // Форма перерисована: находим поля заново
+            controls = null;
+            executeJavaScript(fillFields, getFields(), values);
+        }
+    }
+
+    private List<WebElement> getFields() {
+        return getControls().subList(0, labels.size());
+    }
+
+    private List<WebElement> getControls() {
+        if (controls == null) {
+            List<WebElement> found = executeJavaScript(findFields, labels);
+            if (found == null || found.contains(null)) {
+                throw new IllegalStateException("Не найдены поля формы " + labels + " или кнопка «Продолжить»");
+            }
+            controls = found;
+        }
+        return controls;
+    }
+
+    // Ждёт появления хотя бы одной ошибки; если интерфейс не показал ни одной, сравнение с оракулом покажет расхождение
+    public void waitForInputErrors() {
+        try {
+            inputsInvalid.shouldHave(CollectionCondition.sizeGreaterThan(0));
+        } catch (AssertionError ignored) {
+            // ошибок нет
+        }
+    }
+
+    // Сообщения под полями в порядке номер, месяц, год, владелец, CVC; null - ошибки у поля нет
+    public List<String> getInputErrors() {
+        return executeJavaScript(readErrors, getFields());
+    }
+
+    public void assertNotificationOkIsVisible() {
+        notificationOK.waitUntil(Condition.visible, 12000);
+    }
+
+    public void assertNotificationOkIsNotVisible() {
+        notificationOK.shouldNotBe(Condition.visible);
+    }
+
+    public void assertNotificationErrorIsVisible() {
+        notificationError.waitUntil(Condition.visible, 12000);
+        notificationError.$(".icon").click();
+        assertNotificationOkIsNotVisible();
+    }
+
+    public void assertInputInvalidIsNotVisible() {
+        inputInvalid.shouldNotBe(Condition.visible);
+    }
+
+    // Ошибки при вводе невалидных данных:
+
+    public void assertInputInvalidFormat() {
+        inputInvalid.shouldHave(Condition.exactText("Неверный формат"));
+    }
+
+    public void assertInputInvalidMonth() {
+        inputInvalid.shouldHave(Condition.exactText("Неверно указан срок действия карты"));
+    }
+
+    public void assertInputInvalidExpireDate() {
+        inputInvalid.shouldHave(Condition.exactText("Истёк срок действия карты"));
+    }
+
+    public void assertInputInvalidFillData() {
+        inputInvalid.shouldHave(Condition.exactText("Поле обязательно для заполнения"));
+    }
+
+    // Ошибка ровно у одного поля: при пакетной проверке не даёт засчитать сообщение, оставшееся от прошлого случая
+    public void assertOnlyInputInvalid(String message) {
+        inputsInvalid.shouldHave(CollectionCondition.exactTexts(message));
+    }
+}
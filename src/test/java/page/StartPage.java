@@ -6,12 +6,13 @@ import static com.codeborne.selenide.Selenide.$$;
 import static com.codeborne.selenide.Selenide.open;
 
 public class StartPage {
+    static final String url = "http://localhost:8080/";
 
     private SelenideElement buyButton = $$(By.cssSelector("button")).first();
     private SelenideElement creditButton = $$(By.cssSelector("button")).last();
 
     public static StartPage getStartPage() {
-        open("http://localhost:8080/");
+        open(url);
         return new StartPage();
     }
 
@@ -0,0 +1,141 @@
+package shard;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Длительности тестов прошлых прогонов (мс) по unique id JUnit, включая каждую строку параметризованных тестов.
+// Новое значение сглаживается с прошлым, чтобы единичный медленный прогон не перекраивал шарды
+public class DurationHistory {
+    private static final String invocationMarker = "/[test-template-invocation:";
+    private static final double alpha = 0.5;
+
+    private final TreeMap<String, Long> durations = new TreeMap<>();
+    private final Set<String> updated = new HashSet<>();
+    private final long defaultMillis;
+
+    public DurationHistory(long defaultMillis) {
+        this.defaultMillis = defaultMillis;
+    }
+
+    public static DurationHistory load(Path file, long defaultMillis) {
+        DurationHistory history = new DurationHistory(defaultMillis);
+        if (!Files.exists(file)) {
+            return history;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать историю длительностей " + file, e);
+        }
+        for (String id : properties.stringPropertyNames()) {
+            history.durations.put(id, Long.parseLong(properties.getProperty(id).trim()));
+        }
+        return history;
+    }
+
+    // Форки Gradle и шарды на одной машине пишут в один файл: под блокировкой перечитываем его
+    // и заменяем только тесты, выполненные в этом прогоне
+    public synchronized void save(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path lockFile = absolute.resolveSibling(absolute.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                writeMerged(file);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private void writeMerged(Path file) throws IOException {
+        DurationHistory merged = load(file, defaultMillis);
+        updated.forEach(id -> merged.durations.put(id, durations.get(id)));
+        Properties properties = new Properties();
+        merged.durations.forEach((id, millis) -> properties.setProperty(id, Long.toString(millis)));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Длительности тестов, мс");
+        }
+    }
+
+    public synchronized void update(String id, long millis) {
+        Long previous = durations.get(id);
+        durations.put(id, previous == null ? millis : Math.round(alpha * millis + (1 - alpha) * previous));
+        updated.add(id);
+    }
+
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    // Известные строки параметризованного теста (шаблона)
+    public List<String> invocationsOf(String templateId) {
+        String prefix = templateId + invocationMarker;
+        List<String> result = new ArrayList<>();
+        for (String id : durations.tailMap(prefix).keySet()) {
+            if (!id.startsWith(prefix)) {
+                break;
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    // Без истории: среднее по соседним строкам того же шаблона, затем по тестам того же класса, затем shard.defaultMillis
+    public long estimate(String id) {
+        Long known = durations.get(id);
+        if (known != null) {
+            return known;
+        }
+        String owner = id;
+        int invocation = id.indexOf(invocationMarker);
+        if (invocation >= 0) {
+            owner = id.substring(0, invocation);
+            OptionalDouble rows = average(owner + invocationMarker);
+            if (rows.isPresent()) {
+                return Math.round(rows.getAsDouble());
+            }
+        }
+        int segment = owner.lastIndexOf("/[");
+        if (segment > 0) {
+            OptionalDouble sameClass = average(owner.substring(0, segment) + "/");
+            if (sameClass.isPresent()) {
+                return Math.round(sameClass.getAsDouble());
+            }
+        }
+        return defaultMillis;
+    }
+
+    // Метод-контейнер (@TestFactory): сумма известных тестов внутри него, без истории - как estimate
+    public long estimateTotal(String containerId) {
+        String prefix = containerId + "/";
+        long total = 0;
+        boolean known = false;
+        for (Map.Entry<String, Long> entry : durations.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            total += entry.getValue();
+            known = true;
+        }
+        return known ? total : estimate(containerId);
+    }
+
+    private OptionalDouble average(String prefix) {
+        return durations.tailMap(prefix).entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .mapToLong(Map.Entry::getValue)
+                .average();
+    }
+}
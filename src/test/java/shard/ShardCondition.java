@@ -0,0 +1,21 @@
+package shard;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+// Выполняет только тесты своего шарда (-Dshard.index из -Dshard.count). Без шардирования ничего не отключает
+public class ShardCondition implements ExecutionCondition {
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        ShardPlan plan = ShardPlan.getCurrent();
+        if (plan == null || plan.getCount() < 2) {
+            return ConditionEvaluationResult.enabled("Шардирование выключено");
+        }
+        String shard = "шард " + plan.getIndex() + " из " + plan.getCount();
+        return plan.isOwned(context.getUniqueId())
+                ? ConditionEvaluationResult.enabled(shard)
+                : ConditionEvaluationResult.disabled("Тест другого шарда, текущий " + shard);
+    }
+}
@@ -0,0 +1,106 @@
+package shard;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Строит план шардов до запуска тестов, замеряет каждый тест, обновляет историю и пишет прогноз против факта
+public class ShardListener implements TestExecutionListener {
+    private static final int worstTests = 10;
+
+    private final Path historyFile = Paths.get(System.getProperty("shard.history", ".test-durations.properties"));
+    private final Path reportDir = Paths.get(System.getProperty("shard.reportDir", "build/shard"));
+    private final Map<String, Long> started = new ConcurrentHashMap<>();
+    private final Map<String, Long> actual = new ConcurrentHashMap<>();
+    private DurationHistory history;
+    private long runStart;
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        int count = Integer.getInteger("shard.count", 1);
+        int index = Integer.getInteger("shard.index", 0);
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Неверный шард: shard.index=" + index + ", shard.count=" + count);
+        }
+        history = DurationHistory.load(historyFile, Long.getLong("shard.defaultMillis", 5000));
+        ShardPlan.setCurrent(ShardPlan.build(testPlan, history, index, count));
+        runStart = System.nanoTime();
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier identifier) {
+        if (identifier.isTest()) {
+            started.put(identifier.getUniqueId(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier identifier, TestExecutionResult result) {
+        Long start = started.remove(identifier.getUniqueId());
+        if (start == null || result.getStatus() == TestExecutionResult.Status.ABORTED) {
+            return;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        actual.put(identifier.getUniqueId(), millis);
+        history.update(identifier.getUniqueId(), millis);
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        ShardPlan plan = ShardPlan.getCurrent();
+        if (history == null || plan == null) {
+            return;
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart);
+        try {
+            if (!actual.isEmpty()) {
+                history.save(historyFile);
+            }
+            if (plan.getCount() > 1) {
+                Files.createDirectories(reportDir);
+                Path report = reportDir.resolve("shard-" + plan.getIndex() + ".txt");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(report), true, "UTF-8")) {
+                    printReport(out, plan, wallMillis);
+                }
+                System.out.print(new String(Files.readAllBytes(report), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            ShardPlan.setCurrent(null);
+        }
+    }
+
+    private void printReport(PrintStream out, ShardPlan plan, long wallMillis) {
+        long[] loads = plan.getLoads();
+        out.printf("Шард %d из %d%n", plan.getIndex(), plan.getCount());
+        for (int i = 0; i < loads.length; i++) {
+            out.printf("  прогноз шарда %d: %.1f с%n", i, loads[i] / 1000.0);
+        }
+        long testsMillis = actual.values().stream().mapToLong(Long::longValue).sum();
+        out.printf("Прогноз: %.1f с, факт: %.1f с по тестам (%d), %.1f с всего прогона%n",
+                loads[plan.getIndex()] / 1000.0, testsMillis / 1000.0, actual.size(), wallMillis / 1000.0);
+
+        List<Map.Entry<String, Long>> tests = new ArrayList<>(actual.entrySet());
+        tests.sort((left, right) -> Long.compare(
+                Math.abs(right.getValue() - plan.getPredicted(right.getKey())),
+                Math.abs(left.getValue() - plan.getPredicted(left.getKey()))));
+        out.printf("Наибольшие расхождения:%n%10s %10s  %s%n", "прогноз мс", "факт мс", "тест");
+        tests.stream().limit(worstTests).forEach(test ->
+                out.printf("%10d %10d  %s%n", plan.getPredicted(test.getKey()), test.getValue(), test.getKey()));
+    }
+}
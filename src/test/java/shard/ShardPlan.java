@@ -0,0 +1,135 @@
+package shard;
+
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.util.*;
+
+// Раскладка тестов по шардам: LPT (самые долгие первыми в наименее загруженный шард).
+// Все шарды строят план из одного и того же файла истории, поэтому раскладка совпадает без обмена данными
+public class ShardPlan {
+    private static final String templateMarker = "/[test-template:";
+    private static final String invocationMarker = "/[test-template-invocation:";
+
+    private static volatile ShardPlan current;
+
+    private final int index;
+    private final int count;
+    private final Map<String, Integer> assignment = new HashMap<>();
+    private final Map<String, Long> predicted = new HashMap<>();
+    private final Map<String, Integer> templates = new TreeMap<>();
+    private final long[] loads;
+
+    ShardPlan(int index, int count) {
+        this.index = index;
+        this.count = count;
+        this.loads = new long[count];
+    }
+
+    public static ShardPlan getCurrent() {
+        return current;
+    }
+
+    static void setCurrent(ShardPlan plan) {
+        current = plan;
+    }
+
+    // Единицы раскладки: обычные тесты, известные по истории строки параметризованных тестов и методы-контейнеры
+    // (@TestFactory), чьи тесты появляются только при выполнении. Шаблон без истории строк раскладывается целиком
+    public static ShardPlan build(TestPlan testPlan, DurationHistory history, int index, int count) {
+        Map<String, Long> units = new HashMap<>();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                String id = identifier.getUniqueId();
+                if (identifier.isTest()) {
+                    units.put(id, history.estimate(id));
+                } else if (id.contains(templateMarker)) {
+                    List<String> invocations = history.invocationsOf(id);
+                    if (invocations.isEmpty()) {
+                        units.put(id, history.estimate(id));
+                    }
+                    invocations.forEach(invocation -> units.put(invocation, history.estimate(invocation)));
+                } else if (identifier.isContainer() && identifier.getSource().filter(MethodSource.class::isInstance).isPresent()) {
+                    units.put(id, history.estimateTotal(id));
+                }
+            }
+        }
+        return build(units, index, count);
+    }
+
+    static ShardPlan build(Map<String, Long> units, int index, int count) {
+        ShardPlan plan = new ShardPlan(index, count);
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(units.entrySet());
+        sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<String, Long> unit : sorted) {
+            int shard = 0;
+            for (int i = 1; i < count; i++) {
+                if (plan.loads[i] < plan.loads[shard]) {
+                    shard = i;
+                }
+            }
+            plan.loads[shard] += unit.getValue();
+            plan.assignment.put(unit.getKey(), shard);
+            plan.predicted.put(unit.getKey(), unit.getValue());
+        }
+        // Новые строки шаблона, разложенного по строкам, идут в шард его первой известной строки
+        new TreeMap<>(plan.assignment).forEach((id, shard) -> {
+            int invocation = id.indexOf(invocationMarker);
+            if (invocation >= 0) {
+                plan.templates.putIfAbsent(id.substring(0, invocation), shard);
+            } else if (id.contains(templateMarker)) {
+                plan.templates.put(id, shard);
+            }
+        });
+        return plan;
+    }
+
+    // Контейнер (класс, шаблон) выполняется, если в нём есть хотя бы один тест этого шарда
+    public boolean isOwned(String uniqueId) {
+        Integer shard = assignment.get(uniqueId);
+        if (shard != null) {
+            return shard == index;
+        }
+        int invocation = uniqueId.indexOf(invocationMarker);
+        if (invocation >= 0) {
+            Integer template = templates.get(uniqueId.substring(0, invocation));
+            return template != null ? template == index : Math.floorMod(uniqueId.hashCode(), count) == index;
+        }
+        // Потомки единицы раскладки (динамические тесты и контейнеры фабрики) выполняются в её шарде
+        for (int end = uniqueId.lastIndexOf("/["); end > 0; end = uniqueId.lastIndexOf("/[", end - 1)) {
+            Integer parent = assignment.get(uniqueId.substring(0, end));
+            if (parent != null) {
+                return parent == index;
+            }
+        }
+        String prefix = uniqueId + "/";
+        for (Map.Entry<String, Integer> entry : assignment.entrySet()) {
+            if (entry.getValue() == index && entry.getKey().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return !hasUnitsUnder(prefix) && Math.floorMod(uniqueId.hashCode(), count) == index;
+    }
+
+    private boolean hasUnitsUnder(String prefix) {
+        return assignment.keySet().stream().anyMatch(id -> id.startsWith(prefix));
+    }
+
+    public long getPredicted(String uniqueId) {
+        Long millis = predicted.get(uniqueId);
+        return millis == null ? 0 : millis;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long[] getLoads() {
+        return loads.clone();
+    }
+}
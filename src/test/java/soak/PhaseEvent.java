@@ -0,0 +1,20 @@
+package soak;
+
+import jdk.jfr.*;
+
+// Шаг теста из StepTimings: фаза (загрузка страницы, заполнение формы, ожидание шлюза, проверка в БД) и длительность
+@Name("autotests.Phase")
+@Label("Фаза теста")
+@Category("Autotests")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+    @Label("Фаза")
+    String phase;
+
+    @Label("Шаг")
+    String step;
+
+    @Label("Длительность")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -0,0 +1,26 @@
+package soak;
+
+import jdk.jfr.*;
+
+// Замер ресурсов во время soak-прогона, один на интервал soak.sampleSeconds
+@Name("autotests.Resources")
+@Label("Ресурсы прогона")
+@Category("Autotests")
+@StackTrace(false)
+public class ResourceEvent extends Event {
+    @Label("Итераций")
+    long iterations;
+
+    @Label("Занято кучи")
+    @DataAmount
+    long heapUsed;
+
+    @Label("Потоков")
+    int threads;
+
+    @Label("Активных соединений пула")
+    int poolActive;
+
+    @Label("Соединений на сервере БД")
+    long serverConnections;
+}
@@ -0,0 +1,207 @@
+package soak;
+
+import data.PoolStats;
+import data.SQLHelper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+// Тренды soak-прогона: раз в sampleSeconds замеряются пройденные итерации, куча, потоки и соединения с БД.
+// Первая четверть замеров сравнивается с последней: падение пропускной способности или рост ресурсов
+// сверх порогов - нарушение. Для кучи берётся минимум за четверть (дно пилы GC), для остальных - среднее
+public class SoakMonitor {
+    private final long sampleSeconds;
+    private final double maxThroughputDrop;
+    private final long maxHeapGrowthMb;
+    private final int maxThreadGrowth;
+    private final double maxConnectionGrowth;
+
+    private final List<Sample> samples = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> sampleErrors = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong iterations = new AtomicLong();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private ScheduledExecutorService sampler;
+    private long startNanos;
+
+    public SoakMonitor(long sampleSeconds, double maxThroughputDrop, long maxHeapGrowthMb, int maxThreadGrowth,
+                       double maxConnectionGrowth) {
+        this.sampleSeconds = sampleSeconds;
+        this.maxThroughputDrop = maxThroughputDrop;
+        this.maxHeapGrowthMb = maxHeapGrowthMb;
+        this.maxThreadGrowth = maxThreadGrowth;
+        this.maxConnectionGrowth = maxConnectionGrowth;
+    }
+
+    public static SoakMonitor fromSystemProperties() {
+        return new SoakMonitor(
+                Long.getLong("soak.sampleSeconds", 30),
+                Double.parseDouble(System.getProperty("soak.maxThroughputDrop", "0.3")),
+                Long.getLong("soak.maxHeapGrowthMb", 256),
+                Integer.getInteger("soak.maxThreadGrowth", 20),
+                Double.parseDouble(System.getProperty("soak.maxConnectionGrowth", "2")));
+    }
+
+    public SoakMonitor start() {
+        startNanos = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "soak-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sampleSafely, 0, sampleSeconds, TimeUnit.SECONDS);
+        return this;
+    }
+
+    public void iterationDone() {
+        iterations.incrementAndGet();
+    }
+
+    public void stop() {
+        sampler.shutdownNow();
+        sampleSafely();
+    }
+
+    // Исключение из задачи scheduleAtFixedRate молча отменяет все следующие замеры: ошибка запоминается,
+    // а замеры продолжаются
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (RuntimeException | Error e) {
+            String error = String.format("%.0f с: %s", (System.nanoTime() - startNanos) / 1e9, e);
+            synchronized (sampleErrors) {
+                if (sampleErrors.size() < 10) {
+                    sampleErrors.add(error);
+                }
+            }
+        }
+    }
+
+    private void sample() {
+        PoolStats pool = SQLHelper.getPoolStats();
+        long serverConnections;
+        try {
+            serverConnections = SQLHelper.countServerConnections();
+        } catch (SQLException e) {
+            serverConnections = -1;
+        }
+        Sample sample = new Sample((System.nanoTime() - startNanos) / 1e9, iterations.get(),
+                memory.getHeapMemoryUsage().getUsed(), threads.getThreadCount(), pool.getActive(), serverConnections);
+        samples.add(sample);
+
+        ResourceEvent event = new ResourceEvent();
+        event.iterations = sample.iterations;
+        event.heapUsed = sample.heapUsed;
+        event.threads = sample.threads;
+        event.poolActive = sample.poolActive;
+        event.serverConnections = sample.serverConnections;
+        event.commit();
+    }
+
+    // Нарушения порогов; пустой список, только если тренды проверены и деградации нет
+    public List<String> violations() {
+        List<Sample> all = snapshot();
+        List<String> result = new ArrayList<>();
+        synchronized (sampleErrors) {
+            sampleErrors.forEach(error -> result.add("Ошибка замера на " + error));
+        }
+        if (all.size() < 8) {
+            result.add(String.format("Замеров %d, нужно не меньше 8: тренды не проверены (увеличьте soak.minutes или уменьшите soak.sampleSeconds)",
+                    all.size()));
+            return result;
+        }
+        int quarter = all.size() / 4;
+        List<Sample> first = all.subList(0, quarter + 1);
+        List<Sample> last = all.subList(all.size() - quarter - 1, all.size());
+
+        double firstRate = rate(first);
+        double lastRate = rate(last);
+        if (firstRate > 0 && lastRate < firstRate * (1 - maxThroughputDrop)) {
+            result.add(String.format("Пропускная способность упала с %.2f до %.2f итераций/мин (порог %.0f%%)",
+                    firstRate * 60, lastRate * 60, maxThroughputDrop * 100));
+        }
+        long heapGrowthMb = (min(last) - min(first)) >> 20;
+        if (heapGrowthMb > maxHeapGrowthMb) {
+            result.add(String.format("Минимум занятой кучи вырос на %d МБ (порог %d МБ)", heapGrowthMb, maxHeapGrowthMb));
+        }
+        double threadGrowth = average(last, sample -> sample.threads) - average(first, sample -> sample.threads);
+        if (threadGrowth > maxThreadGrowth) {
+            result.add(String.format("Потоков стало больше на %.1f (порог %d)", threadGrowth, maxThreadGrowth));
+        }
+        double poolGrowth = average(last, sample -> sample.poolActive) - average(first, sample -> sample.poolActive);
+        if (poolGrowth > maxConnectionGrowth) {
+            result.add(String.format("Занятых соединений пула SQLHelper больше на %.1f (порог %.1f): соединения не возвращаются в пул",
+                    poolGrowth, maxConnectionGrowth));
+        }
+        if (first.get(0).serverConnections >= 0) {
+            double serverGrowth = average(last, sample -> sample.serverConnections) - average(first, sample -> sample.serverConnections);
+            if (serverGrowth > maxConnectionGrowth) {
+                result.add(String.format("Соединений на сервере БД больше на %.1f (порог %.1f)", serverGrowth, maxConnectionGrowth));
+            }
+        }
+        return result;
+    }
+
+    // Итераций в секунду между первым и последним замером части
+    private static double rate(List<Sample> part) {
+        Sample from = part.get(0);
+        Sample to = part.get(part.size() - 1);
+        return to.seconds > from.seconds ? (to.iterations - from.iterations) / (to.seconds - from.seconds) : 0;
+    }
+
+    private static long min(List<Sample> part) {
+        return part.stream().mapToLong(sample -> sample.heapUsed).min().orElse(0);
+    }
+
+    private static double average(List<Sample> part, ToDoubleFunction<Sample> value) {
+        return part.stream().mapToDouble(value).average().orElse(0);
+    }
+
+    private List<Sample> snapshot() {
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+
+    public long getIterations() {
+        return iterations.get();
+    }
+
+    public String report() {
+        StringBuilder result = new StringBuilder(String.format("%8s %10s %8s %8s %8s %8s%n",
+                "сек", "итераций", "куча МБ", "потоков", "пул", "сервер"));
+        for (Sample sample : snapshot()) {
+            result.append(String.format("%8.0f %10d %8d %8d %8d %8d%n", sample.seconds, sample.iterations,
+                    sample.heapUsed >> 20, sample.threads, sample.poolActive, sample.serverConnections));
+        }
+        return result.toString();
+    }
+
+    private static class Sample {
+        private final double seconds;
+        private final long iterations;
+        private final long heapUsed;
+        private final int threads;
+        private final int poolActive;
+        private final long serverConnections;
+
+        private Sample(double seconds, long iterations, long heapUsed, int threads, int poolActive, long serverConnections) {
+            this.seconds = seconds;
+            this.iterations = iterations;
+            this.heapUsed = heapUsed;
+            this.threads = threads;
+            this.poolActive = poolActive;
+            this.serverConnections = serverConnections;
+        }
+    }
+}
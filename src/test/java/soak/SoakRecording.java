@@ -0,0 +1,82 @@
+package soak;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import metrics.StepTimings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+// Запись JDK Flight Recorder на время soak-прогона: стандартные события профиля default и PhaseEvent
+// для каждого шага из StepTimings. Файл пишется при stop, открывается в JDK Mission Control
+public class SoakRecording implements StepTimings.Sink, AutoCloseable {
+    private final Recording recording;
+    private final Path destination;
+
+    private SoakRecording(Recording recording, Path destination) {
+        this.recording = recording;
+        this.destination = destination;
+    }
+
+    public static SoakRecording start(Path destination) throws IOException {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (ParseException e) {
+            throw new IOException("Не удалось прочитать настройки JFR default", e);
+        }
+        if (destination.getParent() != null) {
+            Files.createDirectories(destination.getParent());
+        }
+        recording.setName("soak");
+        recording.enable(PhaseEvent.class);
+        recording.enable(ResourceEvent.class);
+        recording.setDestination(destination);
+        recording.start();
+        SoakRecording soak = new SoakRecording(recording, destination);
+        StepTimings.addSink(soak);
+        return soak;
+    }
+
+    public Path getDestination() {
+        return destination;
+    }
+
+    @Override
+    public void record(String step, long nanos) {
+        PhaseEvent event = new PhaseEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.phase = phaseOf(step);
+        event.step = step;
+        event.elapsed = nanos;
+        event.commit();
+    }
+
+    // Имена шагов задают StepTimingListener ("ui: ..."), CardForm ("ui: fill form"), StatusWaiter ("wait: ...") и SQLHelper ("sql: ...")
+    static String phaseOf(String step) {
+        if (step.equals("ui: open")) {
+            return "page load";
+        }
+        if (step.startsWith("ui: fill") || step.startsWith("ui: set value")) {
+            return "form fill";
+        }
+        if (step.startsWith("wait: ")) {
+            return "gate wait";
+        }
+        if (step.startsWith("sql: ")) {
+            return "db verify";
+        }
+        return "ui";
+    }
+
+    @Override
+    public void close() {
+        StepTimings.removeSink(this);
+        recording.stop();
+        recording.close();
+    }
+}
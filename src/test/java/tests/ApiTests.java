@@ -0,0 +1,104 @@
+package tests;
+
+import data.ApiHelper;
+import data.Card;
+import data.DataScope;
+import data.DbReset;
+import data.DbResetExtension;
+import data.OperationRecord;
+import gate.GateSimulatorExtension;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import shard.ShardCondition;
+
+import java.sql.SQLException;
+
+import static data.DataGenerator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Проверки бэкенда без браузера: те же карты и те же запросы в БД, что и в PurchaseTests
+@Tag("api")
+@ExtendWith({ShardCondition.class, DbResetExtension.class, GateSimulatorExtension.class})
+public class ApiTests {
+
+    private Card cardOne = new Card();
+    private Card cardTwo = new Card();
+    private DataScope scope = new DataScope(getUniqueOwner());
+
+    @BeforeEach
+    void setUp() {
+        setCards();
+    }
+
+    @AfterEach
+    void cleanTables() throws SQLException {
+        DbReset.afterEach(scope);
+    }
+
+    @Test
+    @DisplayName("API: должен подтверждать покупку по карте со статусом APPROVED")
+    void shouldConfirmPaymentWithValidDataCardOne() throws SQLException {
+        assertEquals("APPROVED", ApiHelper.getPaymentStatus(cardOne));
+        OperationRecord payment = scope.findPayment();
+        assertEquals("APPROVED", payment.getStatus());
+        assertNotNull(payment.getOrderId());
+    }
+
+    @Test
+    @DisplayName("API: должен подтверждать кредит по карте со статусом APPROVED")
+    void shouldConfirmCreditWithValidDataCardOne() throws SQLException {
+        assertEquals("APPROVED", ApiHelper.getCreditStatus(cardOne));
+        OperationRecord credit = scope.findCredit();
+        assertEquals("APPROVED", credit.getStatus());
+        assertNotNull(credit.getOrderId());
+    }
+
+    @Test
+    @DisplayName("API: не должен подтверждать покупку по карте со статусом DECLINED")
+    void shouldNotConfirmPaymentWithInvalidCardTwo() throws SQLException {
+        assertEquals("DECLINED", ApiHelper.getPaymentStatus(cardTwo));
+        OperationRecord payment = scope.findPayment();
+        assertEquals("DECLINED", payment.getStatus());
+        assertNull(payment.getOrderId());
+    }
+
+    @Test
+    @DisplayName("API: не должен подтверждать кредит по карте со статусом DECLINED")
+    void shouldNotConfirmCreditWithInvalidCardTwo() throws SQLException {
+        assertEquals("DECLINED", ApiHelper.getCreditStatus(cardTwo));
+        OperationRecord credit = scope.findCredit();
+        assertEquals("DECLINED", credit.getStatus());
+        assertNull(credit.getOrderId());
+    }
+
+    @Test
+    @DisplayName("API: не должен подтверждать покупку при невалидном номере карты")
+    void shouldNotSubmitPaymentWithIllegalCard() throws SQLException {
+        cardOne.setNumber("4444 4444 4444 4444");
+        assertNotEquals(200, ApiHelper.sendPayment(cardOne).statusCode());
+        assertFalse(scope.isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("API: не должен подтверждать кредит при невалидном номере карты")
+    void shouldNotSubmitCreditWithIllegalCard() throws SQLException {
+        cardOne.setNumber("4444 4444 4444 4444");
+        assertNotEquals(200, ApiHelper.sendCredit(cardOne).statusCode());
+        assertFalse(scope.isNotEmpty());
+    }
+
+    // Дополнительные методы
+
+    private void setCards() {
+        cardOne.setNumber("4444 4444 4444 4441");
+        cardTwo.setNumber("4444 4444 4444 4442");
+        cardOne.setMonth("01");
+        cardTwo.setMonth("01");
+        cardOne.setYear(getCorrectYear());
+        cardTwo.setYear(getCorrectYear());
+        cardOne.setOwner(scope.getOwner());
+        cardTwo.setOwner(scope.getOwner());
+        cardOne.setCvc(getRandomCvc());
+        cardTwo.setCvc(getRandomCvc());
+    }
+}
@@ -0,0 +1,139 @@
+package tests;
+
+import com.codeborne.selenide.logevents.SelenideLogger;
+import data.Card;
+import data.CsvFields;
+import data.DataScope;
+import data.DbReset;
+import data.DbResetExtension;
+import gate.GateSimulatorExtension;
+import io.qameta.allure.selenide.AllureSelenide;
+import metrics.StepTimingListener;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import page.BrowserPoolExtension;
+import page.CreditPage;
+import page.PaymentPage;
+import page.StartPage;
+import shard.ShardCondition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static data.DataGenerator.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+// Все негативные проверки формы за одну загрузку страницы: форма очищается и заполняется заново для каждого случая,
+// результат по каждому случаю виден отдельным динамическим тестом. Включается -Dvalidation.batch=true
+@EnabledIfSystemProperty(named = "validation.batch", matches = "true")
+@ExtendWith({ShardCondition.class, DbResetExtension.class, GateSimulatorExtension.class, BrowserPoolExtension.class})
+public class BatchValidationTests {
+    private static final String invalidFormat = "Неверный формат";
+
+    private DataScope scope = new DataScope(getUniqueOwner());
+
+    @BeforeEach
+    void setUp() {
+        SelenideLogger.addListener("allure", new AllureSelenide());
+        SelenideLogger.addListener("timing", new StepTimingListener());
+    }
+
+    @AfterEach
+    void cleanTables() throws SQLException {
+        SelenideLogger.removeListener("allure");
+        SelenideLogger.removeListener("timing");
+        DbReset.afterEach(scope);
+    }
+
+    @TestFactory
+    @DisplayName("Не должен подтверждать покупку при невалидных данных")
+    Stream<DynamicTest> shouldNotSubmitPaymentWithInvalidData() {
+        PaymentPage paymentPage = StartPage.getStartPage().paymentPage();
+        return validationTests(paymentPage::cleanData, paymentPage::fillData, paymentPage::assertOnlyInputInvalid);
+    }
+
+    @TestFactory
+    @DisplayName("Не должен подтверждать кредит при невалидных данных")
+    Stream<DynamicTest> shouldNotSubmitCreditWithInvalidData() {
+        CreditPage creditPage = StartPage.getStartPage().creditPage();
+        return validationTests(creditPage::cleanData, creditPage::fillData, creditPage::assertOnlyInputInvalid);
+    }
+
+    private Stream<DynamicTest> validationTests(Runnable cleanData, Consumer<Card> fillData, Consumer<String> assertInvalid) {
+        Stream<DynamicTest> cases = validationCases().stream().map(validationCase -> dynamicTest(validationCase.name, () -> {
+            Card card = getValidCard();
+            validationCase.spoil.accept(card);
+            cleanData.run();
+            fillData.accept(card);
+            assertInvalid.accept(validationCase.message);
+        }));
+        return Stream.concat(cases, Stream.of(dynamicTest("Операции не отправлены в БД", () -> assertFalse(scope.isNotEmpty()))));
+    }
+
+    // Те же случаи, что и в PurchaseTests: строки .cvs и отдельные проверки месяца, года и владельца
+    private static List<ValidationCase> validationCases() {
+        List<ValidationCase> cases = new ArrayList<>();
+        addCsvCases(cases, "/wrongMonth.cvs", Card::setMonth);
+        addCsvCases(cases, "/wrongOwner.cvs", Card::setOwner);
+        addCsvCases(cases, "/wrongCvc.cvs", Card::setCvc);
+        cases.add(new ValidationCase("Не должен подтверждать операцию, если введен несуществующий месяц",
+                card -> card.setMonth("22"), "Неверно указан срок действия карты"));
+        cases.add(new ValidationCase("Не должен подтверждать операцию без указания года",
+                card -> card.setYear(""), invalidFormat));
+        cases.add(new ValidationCase("Не должен подтверждать операцию, если год предшествует текущему",
+                card -> card.setYear(getWrongYear()), "Истёк срок действия карты"));
+        cases.add(new ValidationCase("Не должен подтверждать операцию без имени владельца",
+                card -> card.setOwner(""), "Поле обязательно для заполнения"));
+        return cases;
+    }
+
+    private static void addCsvCases(List<ValidationCase> cases, String resource, BiConsumer<Card, String> field) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                BatchValidationTests.class.getResourceAsStream(resource), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> row = CsvFields.split(line);
+                cases.add(new ValidationCase(row.get(1), card -> field.accept(card, row.get(0)), invalidFormat));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Card getValidCard() {
+        Card card = new Card();
+        card.setNumber("4444 4444 4444 4441");
+        card.setMonth("01");
+        card.setYear(getCorrectYear());
+        card.setOwner(scope.getOwner());
+        card.setCvc(getRandomCvc());
+        return card;
+    }
+
+    private static class ValidationCase {
+        private final String name;
+        private final Consumer<Card> spoil;
+        private final String message;
+
+        private ValidationCase(String name, Consumer<Card> spoil, String message) {
+            this.name = name;
+            this.spoil = spoil;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package tests;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import data.*;
+import gate.GateSimulatorExtension;
+import io.qameta.allure.Allure;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import shard.ShardCondition;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static data.DataGenerator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Пачки одновременных оплат и кредитов через API с картами APPROVED и DECLINED. После всех пачек журнал шлюза
+// сверяется со строками БД одним набором запросов: потерянные, задублированные и неверно связанные записи.
+// Включается -Dconcurrency=true, размер задают concurrency.bursts и concurrency.burstSize
+@Tag("concurrency")
+@EnabledIfSystemProperty(named = "concurrency", matches = "true")
+@ExtendWith({ShardCondition.class, DbResetExtension.class, GateSimulatorExtension.class})
+public class ConcurrencyTests {
+    private static final int bursts = Integer.getInteger("concurrency.bursts", 5);
+    private static final int burstSize = Integer.getInteger("concurrency.burstSize", 40);
+    private static final int timeoutMillis = Integer.getInteger("concurrency.timeoutMillis", 30000);
+
+    private final Gson gson = new Gson();
+    private DataScope scope = new DataScope(getUniqueOwner());
+
+    @AfterEach
+    void cleanTables() throws SQLException {
+        DbReset.afterEach(scope);
+    }
+
+    @Test
+    @DisplayName("Одновременные оплаты и кредиты: у каждой операции одна строка и верный заказ")
+    void shouldKeepOperationsConsistentUnderConcurrentPurchases() throws Exception {
+        ConcurrentHistogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(burstSize);
+        long busyNanos = 0;
+        try {
+            for (int burst = 0; burst < bursts; burst++) {
+                busyNanos += fireBurst(executor, latency, failed);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        int sent = bursts * burstSize;
+        double throughput = sent / (busyNanos / 1e9);
+        Allure.step(String.format("%d запросов пачками по %d: %.0f операций/с, задержка p50 %.1f мс, p99 %.1f мс, max %.1f мс",
+                sent, burstSize, throughput, latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0, latency.getMaxValue() / 1000.0));
+
+        List<GateOperation> journal = GateHelper.findOperations(scope.getOwner());
+        List<String> ids = new ArrayList<>(journal.size());
+        journal.forEach(operation -> ids.add(operation.getId()));
+        long start = System.nanoTime();
+        Reconciliation reconciliation = new Reconciliation(journal, SQLHelper.findOperationRows(ids));
+        Allure.step(String.format("Сверка %d операций с БД: %d мс", journal.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        Allure.addAttachment("Сверка шлюза и БД", reconciliation.report(20));
+
+        assertAll(
+                () -> assertEquals(0, failed.get(), "Запросы к приложению без ответа 200"),
+                () -> assertEquals(sent - failed.get(), journal.size(), "Операции в журнале шлюза"),
+                () -> assertTrue(reconciliation.isConsistent(), reconciliation.report(20)));
+    }
+
+    // Все запросы пачки ждут общего старта, время пачки - от старта до последнего ответа
+    private long fireBurst(ExecutorService executor, ConcurrentHistogram latency, AtomicInteger failed) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(burstSize);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> requests = new ArrayList<>(burstSize);
+        for (int i = 0; i < burstSize; i++) {
+            boolean credit = i % 2 == 1;
+            Card card = getCard(i % 4 < 2 ? "4444 4444 4444 4441" : "4444 4444 4444 4442");
+            requests.add(executor.submit(() -> {
+                ready.countDown();
+                go.await();
+                long start = System.nanoTime();
+                String status = send(credit ? ApiHelper.creditPath : ApiHelper.paymentPath, card);
+                latency.recordValue(Math.min(latency.getHighestTrackableValue(),
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+                if (status == null) {
+                    failed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Future<?> request : requests) {
+            try {
+                request.get();
+            } catch (ExecutionException e) {
+                failed.incrementAndGet();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Статус из ответа приложения или null, если ответ не 200. Запрос без REST Assured: в замер задержки
+    // не попадают фильтры и разбор ответа, а пачка стартует одновременно без общего состояния клиента
+    private String send(String path, Card card) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(ApiHelper.sutUrl + path).openConnection();
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(gson.toJson(ApiHelper.toRequestBody(card)).getBytes(StandardCharsets.UTF_8));
+        }
+        if (connection.getResponseCode() != 200) {
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            JsonObject body = gson.fromJson(reader, JsonObject.class);
+            return body != null && body.has("status") ? body.get("status").getAsString() : null;
+        }
+    }
+
+    private Card getCard(String number) {
+        Card card = new Card();
+        card.setNumber(number);
+        card.setMonth("01");
+        card.setYear(getCorrectYear());
+        card.setOwner(scope.getOwner());
+        card.setCvc(getRandomCvc());
+        return card;
+    }
+}
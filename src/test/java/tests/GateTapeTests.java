@@ -0,0 +1,78 @@
+package tests;
+
+import gate.GateTape;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Запись и чтение GateTape без шлюза: порядок ответов ключа, повтор по кругу, блоки из разных порций записи
+@Tag("unit")
+public class GateTapeTests {
+    private static final String approved = GateTape.key("/payment", "4444 4444 4444 4441");
+    private static final String declined = GateTape.key("/payment", "4444 4444 4444 4442");
+    private static final String credit = GateTape.key("/credit", "4444 4444 4444 4441");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Ответы ключа возвращаются в порядке записи и по кругу")
+    void shouldReplayEntriesInOrderAndCycle() throws IOException {
+        Path path = dir.resolve("gate.tape");
+        // Порция по 2 ответа: у ключей несколько блоков в разных частях файла
+        try (GateTape.Writer writer = new GateTape.Writer(path, 2)) {
+            writer.add(approved, new GateTape.Entry(200, "APPROVED", 1000));
+            writer.add(declined, new GateTape.Entry(200, "DECLINED", 2000));
+            writer.add(approved, new GateTape.Entry(200, "APPROVED", 1100));
+            writer.add(credit, new GateTape.Entry(500, null, 3000));
+            writer.add(approved, new GateTape.Entry(400, null, 1200));
+        }
+
+        try (GateTape tape = GateTape.open(path)) {
+            assertEquals(3, tape.size());
+            assertEntry(200, "APPROVED", 1000, tape.next(approved));
+            assertEntry(200, "APPROVED", 1100, tape.next(approved));
+            assertEntry(400, null, 1200, tape.next(approved));
+            assertEntry(200, "APPROVED", 1000, tape.next(approved));
+
+            assertEntry(200, "DECLINED", 2000, tape.next(declined));
+            assertEntry(200, "DECLINED", 2000, tape.next(declined));
+            assertEntry(500, null, 3000, tape.next(credit));
+        }
+    }
+
+    @Test
+    @DisplayName("Незаписанный ключ - null")
+    void shouldReturnNullForUnknownKey() throws IOException {
+        Path path = dir.resolve("gate.tape");
+        try (GateTape.Writer writer = new GateTape.Writer(path)) {
+            writer.add(approved, new GateTape.Entry(200, "APPROVED", 1000));
+        }
+
+        try (GateTape tape = GateTape.open(path)) {
+            assertNull(tape.next(GateTape.key("/payment", "4444 4444 4444 4443")));
+            assertNull(tape.next(GateTape.key("/credit", "4444 4444 4444 4441")));
+        }
+    }
+
+    @Test
+    @DisplayName("В ключе остаются только цифры номера")
+    void shouldNormalizeCardNumberInKey() {
+        assertEquals("/payment 4444444444444441", approved);
+        assertEquals(approved, GateTape.key("/payment", "4444-4444-4444-4441"));
+    }
+
+    private static void assertEntry(int code, String status, int latencyMicros, GateTape.Entry entry) {
+        assertNotNull(entry);
+        assertAll(
+                () -> assertEquals(code, entry.getCode()),
+                () -> assertEquals(status, entry.getStatus()),
+                () -> assertEquals(latencyMicros, entry.getLatencyMicros()));
+    }
+}
@@ -0,0 +1,15 @@
+package tests;
+
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Проверка валидации с отдельной загрузкой страницы. С -Dvalidation.batch=true её заменяет BatchValidationTests
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@DisabledIfSystemProperty(named = "validation.batch", matches = "true")
+public @interface PerCaseValidation {
+}
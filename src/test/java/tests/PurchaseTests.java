@@ -1,79 +1,91 @@
 package tests;
 
 import com.codeborne.selenide.logevents.SelenideLogger;
-import com.github.javafaker.Faker;
 import data.Card;
-import data.SQLHelper;
+import data.DataScope;
+import data.DbReset;
+import data.DbResetExtension;
+import data.OperationRecord;
+import data.StreamingFileSource;
+import gate.GateSimulatorExtension;
 import io.qameta.allure.selenide.AllureSelenide;
+import metrics.StepTimingListener;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.CsvFileSource;
+import page.BrowserPoolExtension;
+import page.CreditPage;
+import page.PaymentPage;
+import shard.ShardCondition;
 
 import java.sql.SQLException;
-import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static data.DataGenerator.*;
 import static page.PaymentPage.getFilledPaymentPage;
 import static page.CreditPage.getFilledCreditPage;
 
+@ExtendWith({ShardCondition.class, DbResetExtension.class, GateSimulatorExtension.class, BrowserPoolExtension.class})
 public class PurchaseTests {
 
     private Card cardOne = new Card();
     private Card cardTwo = new Card();
     private Card invalidNumberCard = new Card();
-    private Faker faker = new Faker(new Locale("en"));
+    private DataScope scope = new DataScope(getUniqueOwner());
 
+    // Слушатели Selenide привязаны к потоку, поэтому регистрируются для каждого теста
     @BeforeEach
     void setUp() {
+        SelenideLogger.addListener("allure", new AllureSelenide());
+        SelenideLogger.addListener("timing", new StepTimingListener());
         setCards();
     }
 
     @AfterEach
     void cleanTables() throws SQLException {
-        SQLHelper.cleanTables();
-    }
-
-    @BeforeAll
-    static void setUpAll() {
-        SelenideLogger.addListener("allure", new AllureSelenide());
-    }
-
-    @AfterAll
-    static void tearDownAll() {
         SelenideLogger.removeListener("allure");
+        SelenideLogger.removeListener("timing");
+        DbReset.afterEach(scope);
     }
 
     @Test
     @DisplayName("Должен подтверждать покупку при валидных данных и карте со статусом APPROVED")
     void shouldConfirmPaymentWithValidDataCardOne() throws SQLException {
-        getFilledPaymentPage(cardOne).assertNotificationOkIsVisible();
-        assertEquals(SQLHelper.findPaymentStatus(), "APPROVED");
-        assertNotNull(SQLHelper.findPaymentId());
+        PaymentPage paymentPage = getFilledPaymentPage(cardOne);
+        OperationRecord payment = scope.awaitPayment();
+        assertEquals("APPROVED", payment.getStatus());
+        paymentPage.assertNotificationOkIsVisible();
+        assertNotNull(payment.getOrderId());
     }
 
     @Test
     @DisplayName("Должен подтверждать кредит при валидных данных и карте со статусом APPROVED")
     void shouldConfirmCreditWithValidDataCardOne() throws SQLException {
-        getFilledCreditPage(cardOne).assertNotificationOkIsVisible();
-        assertEquals(SQLHelper.findCreditStatus(), "APPROVED");
-        assertNotNull(SQLHelper.findCreditId());
+        CreditPage creditPage = getFilledCreditPage(cardOne);
+        OperationRecord credit = scope.awaitCredit();
+        assertEquals("APPROVED", credit.getStatus());
+        creditPage.assertNotificationOkIsVisible();
+        assertNotNull(credit.getOrderId());
     }
 
     @Test
     @DisplayName("Не должен подтверждать покупку при использовании карты со статусом DECLINED")
     void shouldNotConfirmPaymentWithInvalidCardTwo() throws SQLException{
-        getFilledPaymentPage(cardTwo).assertNotificationErrorIsVisible();
-        assertEquals(SQLHelper.findPaymentStatus(), "DECLINED");
-        assertNull(SQLHelper.findPaymentId());
+        PaymentPage paymentPage = getFilledPaymentPage(cardTwo);
+        OperationRecord payment = scope.awaitPayment();
+        assertEquals("DECLINED", payment.getStatus());
+        paymentPage.assertNotificationErrorIsVisible();
+        assertNull(scope.findPayment().getOrderId());
     }
 
     @Test
     @DisplayName("Не должен подтверждать кредит при использовании карты со статусом DECLINED")
     void shouldNotConfirmCreditWithInvalidCardTwo() throws SQLException {
-        getFilledCreditPage(cardTwo).notificationErrorIsVisible();
-        assertEquals(SQLHelper.findCreditStatus(), "DECLINED");
-        assertNull(SQLHelper.findCreditId());
+        CreditPage creditPage = getFilledCreditPage(cardTwo);
+        OperationRecord credit = scope.awaitCredit();
+        assertEquals("DECLINED", credit.getStatus());
+        creditPage.notificationErrorIsVisible();
+        assertNull(scope.findCredit().getOrderId());
     }
 
     // Негативные сценарии с номером карты при оплате:
@@ -83,7 +95,7 @@ public class PurchaseTests {
     void shouldNotSubmitPaymentWithIllegalCard() throws SQLException {
         cardOne.setNumber("4444 4444 4444 4444");
         getFilledPaymentPage(cardOne).assertNotificationErrorIsVisible();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
 }
 
     // Негативные сценарии с номером карты при кредите:
@@ -93,131 +105,145 @@ public class PurchaseTests {
     void shouldNotSubmitCreditWithIllegalCard() throws SQLException{
         cardOne.setNumber("4444 4444 4444 4444");
         getFilledCreditPage(cardOne).notificationErrorIsVisible();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
     // Негативные сценарии с датой при оплате:
 
+    @PerCaseValidation
     @ParameterizedTest
-    @CsvFileSource(resources = "/wrongMonth.cvs", numLinesToSkip = 1)
+    @StreamingFileSource("/wrongMonth.cvs")
     void shouldNotSubmitPaymentWithWrongMonth(String month, String message) throws SQLException {
         cardOne.setMonth(month);
         getFilledPaymentPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать покупку, если введен несуществующий месяц")
     void shouldNotConfirmPaymentWithInvalidMonth() throws SQLException {
         cardOne.setMonth("22");
         getFilledPaymentPage(cardOne).assertInputInvalidMonth();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать покупку без указания года")
     void shouldNotConfirmPaymentIfEmptyYear() throws SQLException {
         cardOne.setYear("");
         getFilledPaymentPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать покупку, если год предшествует текущему")
     void shouldNotConfirmPaymentWithOldYear() throws SQLException {
         cardOne.setYear(getWrongYear());
         getFilledPaymentPage(cardOne).assertInputInvalidExpireDate();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
     // Негативные сценарии с датой при кредите:
 
+    @PerCaseValidation
     @ParameterizedTest
-    @CsvFileSource(resources = "/wrongMonth.cvs", numLinesToSkip = 1)
+    @StreamingFileSource("/wrongMonth.cvs")
     void shouldNotSubmitCreditWithWrongMonth(String month, String message) throws SQLException{
         cardOne.setMonth(month);
         getFilledCreditPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать кредит, если введен несуществующий месяц")
     void shouldNotConfirmCreditWithInvalidMonth() throws SQLException{
         cardOne.setMonth("22");
         getFilledCreditPage(cardOne).assertInputInvalidMonth();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать кредит без указания года")
     void shouldNotConfirmCreditIfEmptyYear() throws SQLException{
         cardOne.setYear("");
         getFilledCreditPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать кредит, если год предшествует текущему")
     void shouldNotConfirmCreditWithOldYear() throws SQLException{
         cardOne.setYear(getWrongYear());
         getFilledCreditPage(cardOne).assertInputInvalidExpireDate();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
     // Негативные сценарии с полем владелец при покупке:
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать покупку без имени владельца")
     void shouldNotConfirmPaymentWithoutOwner() throws SQLException{
         cardOne.setOwner("");
         getFilledPaymentPage(cardOne).assertInputInvalidFillData();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @ParameterizedTest
-    @CsvFileSource(resources = "/wrongOwner.cvs", numLinesToSkip = 1)
+    @StreamingFileSource("/wrongOwner.cvs")
     void shouldNotConfirmPaymentWithInvalidOwner(String owner, String message) throws SQLException {
         cardOne.setOwner(owner);
         getFilledPaymentPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
     // Негативные сценарии с полем владелец при кредите:
 
+    @PerCaseValidation
     @Test
     @DisplayName("Не должен подтверждать кредит без имени владельца")
     void shouldNotConfirmCreditWithoutOwner() throws SQLException{
         cardOne.setOwner("");
         getFilledCreditPage(cardOne).assertInputInvalidFillData();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
+    @PerCaseValidation
     @ParameterizedTest
-    @CsvFileSource(resources = "/wrongOwner.cvs", numLinesToSkip = 1)
+    @StreamingFileSource("/wrongOwner.cvs")
     void shouldNotConfirmCreditWithInvalidOwner(String owner, String message) throws SQLException{
         cardOne.setOwner(owner);
         getFilledCreditPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
     // Негативные сценарии с полем cvc/cvv при оплате:
 
+    @PerCaseValidation
     @ParameterizedTest
-    @CsvFileSource(resources = "/wrongCvc.cvs", numLinesToSkip = 1)
+    @StreamingFileSource("/wrongCvc.cvs")
     void shouldNotConfirmPaymentWithInvalidCvc(String cvc, String message) throws SQLException{
         cardOne.setCvc(cvc);
         getFilledPaymentPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
     // Негативные сценарии с полем cvc/cvv при кредите:
 
+    @PerCaseValidation
     @ParameterizedTest
-    @CsvFileSource(resources = "/wrongCvc.cvs", numLinesToSkip = 1)
+    @StreamingFileSource("/wrongCvc.cvs")
     void shouldNotConfirmCreditWithInvalidCvc(String cvc, String message) throws SQLException {
         cardOne.setCvc(cvc);
         getFilledCreditPage(cardOne).assertInputInvalidFormat();
-        assertFalse(SQLHelper.isNotEmpty());
+        assertFalse(scope.isNotEmpty());
     }
 
     // Дополнительные методы
@@ -230,14 +256,9 @@ public class PurchaseTests {
         cardTwo.setMonth("01");
         cardOne.setYear(getCorrectYear());
         cardTwo.setYear(getCorrectYear());
-        cardOne.setOwner(setFakeOwner());
-        cardTwo.setOwner(setFakeOwner());
+        cardOne.setOwner(scope.getOwner());
+        cardTwo.setOwner(scope.getOwner());
         cardOne.setCvc(getRandomCvc());
         cardTwo.setCvc(getRandomCvc());
     }
-
-   private String setFakeOwner() {
-        String owner = faker.name().fullName();
-        return owner;
-   }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package tests;
+
+import data.GateOperation;
+import data.OperationRows;
+import data.Reconciliation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Сверка журнала шлюза со строками БД на собранных вручную строках, без приложения и БД
+@Tag("unit")
+public class ReconciliationTests {
+    private final Map<String, List<String>> paymentStatuses = new HashMap<>();
+    private final Map<String, List<String>> creditStatuses = new HashMap<>();
+    private final Map<String, List<String>> paymentOrders = new HashMap<>();
+    private final Map<String, List<String>> creditOrders = new HashMap<>();
+    private final List<GateOperation> journal = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        payment("p1", "APPROVED");
+        paymentStatuses.put("p1", list("APPROVED"));
+        paymentOrders.put("p1", list("o1"));
+        credit("c1", "DECLINED");
+        creditStatuses.put("c1", list("DECLINED"));
+    }
+
+    @Test
+    @DisplayName("Одна строка и верный заказ у каждой операции - расхождений нет")
+    void shouldBeConsistent() {
+        Reconciliation reconciliation = reconcile();
+        assertTrue(reconciliation.isConsistent(), reconciliation.report(10));
+    }
+
+    @Test
+    @DisplayName("Нет строки операции - потеряна")
+    void shouldReportMissingRow() {
+        payment("p2", "DECLINED");
+
+        Reconciliation reconciliation = reconcile();
+        assertProblems(reconciliation.getLost(), "/payment p2: нет строки операции");
+        assertTrue(reconciliation.getDuplicated().isEmpty());
+        assertTrue(reconciliation.getMislinked().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Две строки операции - дубликат")
+    void shouldReportDuplicateRow() {
+        creditStatuses.put("c1", list("DECLINED", "DECLINED"));
+
+        Reconciliation reconciliation = reconcile();
+        assertProblems(reconciliation.getDuplicated(), "/credit c1: строк операции 2");
+        assertTrue(reconciliation.getLost().isEmpty());
+        assertTrue(reconciliation.getMislinked().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Заказ у DECLINED - неверная связь")
+    void shouldReportOrderOfDeclinedOperation() {
+        creditOrders.put("c1", list("o2"));
+
+        Reconciliation reconciliation = reconcile();
+        assertProblems(reconciliation.getMislinked(), "/credit c1: заказ у операции со статусом DECLINED");
+        assertTrue(reconciliation.getLost().isEmpty());
+        assertTrue(reconciliation.getDuplicated().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Заказ ссылается на оплату колонкой кредита - неверная связь и потерянный заказ")
+    void shouldReportOrderInWrongColumn() {
+        paymentOrders.remove("p1");
+        creditOrders.put("p1", list("o1"));
+
+        Reconciliation reconciliation = reconcile();
+        assertProblems(reconciliation.getMislinked(), "/payment p1: заказ ссылается на операцию колонкой другого типа");
+        assertProblems(reconciliation.getLost(), "/payment p1: нет заказа");
+        assertTrue(reconciliation.getDuplicated().isEmpty());
+    }
+
+    private Reconciliation reconcile() {
+        return new Reconciliation(journal, new OperationRows(paymentStatuses, creditStatuses, paymentOrders, creditOrders));
+    }
+
+    private void payment(String id, String status) {
+        journal.add(new GateOperation(id, status, "/payment"));
+    }
+
+    private void credit(String id, String status) {
+        journal.add(new GateOperation(id, status, "/credit"));
+    }
+
+    private static List<String> list(String... values) {
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
+    private static void assertProblems(List<String> actual, String... expected) {
+        assertEquals(Arrays.asList(expected), actual);
+    }
+}
@@ -0,0 +1,93 @@
+package tests;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherFactory;
+import shard.DurationHistory;
+import shard.ShardPlan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+// Раскладка настоящих тестовых классов: каждый тест, в том числе строки шаблонов и динамические тесты фабрик,
+// которых нет в плане до запуска, выполняется ровно в одном шарде вместе со всеми своими контейнерами
+@Tag("unit")
+public class ShardPlanTests {
+    private static final String invocationMarker = "/[test-template-invocation:";
+
+    @Test
+    @DisplayName("Объединение шардов - весь план, без пропусков и повторов")
+    void shouldRunEveryTestInExactlyOneShard() {
+        TestPlan testPlan = LauncherFactory.create().discover(request()
+                .selectors(selectClass(PurchaseTests.class), selectClass(BatchValidationTests.class),
+                        selectClass(ValidationFuzzTests.class), selectClass(ApiTests.class))
+                .build());
+        List<String> leaves = leaves(testPlan);
+
+        for (DurationHistory history : new DurationHistory[]{new DurationHistory(5000), partialHistory(leaves)}) {
+            for (int count = 1; count <= 5; count++) {
+                List<ShardPlan> shards = new ArrayList<>();
+                for (int index = 0; index < count; index++) {
+                    shards.add(ShardPlan.build(testPlan, history, index, count));
+                }
+                for (String leaf : leaves) {
+                    long owners = shards.stream().filter(shard -> runs(shard, leaf)).count();
+                    assertEquals(1, owners, "шардов " + count + ", тест " + leaf);
+                }
+            }
+        }
+    }
+
+    // Тесты плана, а для методов-контейнеров - строки и динамические тесты, как они появятся при выполнении
+    private static List<String> leaves(TestPlan testPlan) {
+        List<String> leaves = new ArrayList<>();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                String id = identifier.getUniqueId();
+                if (identifier.isTest()) {
+                    leaves.add(id);
+                } else if (id.contains("/[test-template:")) {
+                    for (int i = 1; i <= 3; i++) {
+                        leaves.add(id + invocationMarker + "#" + i + "]");
+                    }
+                } else if (identifier.getSource().filter(MethodSource.class::isInstance).isPresent()) {
+                    for (int i = 1; i <= 3; i++) {
+                        leaves.add(id + "/[dynamic-test:#" + i + "]");
+                    }
+                    leaves.add(id + "/[dynamic-container:#4]/[dynamic-test:#1]");
+                }
+            }
+        }
+        return leaves;
+    }
+
+    // История есть у части тестов: разные шаблоны и фабрики раскладываются и целиком, и по строкам
+    private static DurationHistory partialHistory(List<String> leaves) {
+        DurationHistory history = new DurationHistory(5000);
+        for (int i = 0; i < leaves.size(); i += 2) {
+            history.update(leaves.get(i), 1000 + i * 37 % 5000);
+        }
+        return history;
+    }
+
+    // Тест выполняется, если шард не отключил ни его, ни один из его контейнеров (кроме движка)
+    private static boolean runs(ShardPlan shard, String leaf) {
+        if (shard.getCount() < 2) {
+            return true;
+        }
+        for (int end = leaf.indexOf("/[", 1); end > 0; end = leaf.indexOf("/[", end + 1)) {
+            if (!shard.isOwned(leaf.substring(0, end))) {
+                return false;
+            }
+        }
+        return shard.isOwned(leaf);
+    }
+}
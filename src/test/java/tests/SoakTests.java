@@ -0,0 +1,133 @@
+package tests;
+
+import com.codeborne.selenide.logevents.SelenideLogger;
+import data.Card;
+import data.DataScope;
+import data.DbResetExtension;
+import data.OperationRecord;
+import gate.GateSimulatorExtension;
+import io.qameta.allure.Allure;
+import metrics.StepTimingListener;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import page.BrowserPoolExtension;
+import page.CardForm;
+import shard.ShardCondition;
+import soak.SoakMonitor;
+import soak.SoakRecording;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static data.DataGenerator.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static page.CreditPage.getFilledCreditPage;
+import static page.PaymentPage.getFilledPaymentPage;
+
+// Длительный прогон: сценарии оплаты и кредита из PurchaseTests по кругу в течение soak.minutes.
+// Идёт запись JFR (soak.dir/soak.jfr) с событиями фаз и замерами ресурсов; прогон падает при ошибках сценариев,
+// падении пропускной способности или росте кучи, потоков и соединений сверх порогов SoakMonitor.
+// Включается -Dsoak=true
+@Tag("soak")
+@EnabledIfSystemProperty(named = "soak", matches = "true")
+@ExtendWith({ShardCondition.class, DbResetExtension.class, GateSimulatorExtension.class, BrowserPoolExtension.class})
+public class SoakTests {
+    private static final long minutes = Long.getLong("soak.minutes", 30);
+    private static final Path dir = Paths.get(System.getProperty("soak.dir", "build/soak"));
+    private static final int maxFailures = Integer.getInteger("soak.maxFailures", 0);
+
+    // Без слушателя Allure: шаги Selenide по каждой итерации раздули бы отчёт на часы прогона
+    @BeforeEach
+    void setUp() {
+        SelenideLogger.addListener("timing", new StepTimingListener());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SelenideLogger.removeListener("timing");
+    }
+
+    @Test
+    @DisplayName("Оплата и кредит по кругу: без деградации и утечек ресурсов")
+    void shouldNotDegradeOverTime() throws Exception {
+        SoakMonitor monitor = SoakMonitor.fromSystemProperties();
+        List<String> failures = new ArrayList<>();
+        long failed = 0;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(minutes);
+        Path jfr;
+        try (SoakRecording recording = SoakRecording.start(dir.resolve("soak.jfr"))) {
+            jfr = recording.getDestination();
+            monitor.start();
+            try {
+                for (int i = 0; System.nanoTime() < deadline; i++) {
+                    try {
+                        runScenario(i % 4);
+                    } catch (AssertionError | Exception e) {
+                        failed++;
+                        if (failures.size() < 10) {
+                            failures.add("итерация " + i + ": " + e);
+                        }
+                    }
+                    monitor.iterationDone();
+                }
+            } finally {
+                monitor.stop();
+            }
+        }
+        Files.write(dir.resolve("soak-trend.txt"), monitor.report().getBytes("UTF-8"));
+        Allure.addAttachment("Тренды soak-прогона", monitor.report());
+        Allure.step(String.format("%d итераций за %d мин, ошибок %d, запись JFR: %s",
+                monitor.getIterations(), minutes, failed, jfr.toAbsolutePath()));
+
+        List<String> violations = monitor.violations();
+        long failedIterations = failed;
+        assertAll(
+                () -> assertTrue(failedIterations <= maxFailures,
+                        "Ошибок сценариев " + failedIterations + " (допустимо " + maxFailures + "):\n" + String.join("\n", failures)),
+                () -> assertTrue(violations.isEmpty(), String.join("\n", violations)));
+    }
+
+    // 0, 1 - оплата APPROVED и DECLINED, 2, 3 - кредит. Каждая итерация со своим владельцем и удаляет свои строки
+    private void runScenario(int scenario) throws SQLException {
+        DataScope scope = new DataScope(getUniqueOwner());
+        boolean approved = scenario % 2 == 0;
+        Card card = getCard(approved ? "4444 4444 4444 4441" : "4444 4444 4444 4442", scope.getOwner());
+        try {
+            OperationRecord record;
+            CardForm form;
+            if (scenario < 2) {
+                form = getFilledPaymentPage(card);
+                record = scope.awaitPayment();
+            } else {
+                form = getFilledCreditPage(card);
+                record = scope.awaitCredit();
+            }
+            assertEquals(approved ? "APPROVED" : "DECLINED", record.getStatus());
+            if (approved) {
+                form.assertNotificationOkIsVisible();
+                assertTrue(record.hasOrder());
+            } else {
+                form.assertNotificationErrorIsVisible();
+                assertFalse((scenario < 2 ? scope.findPayment() : scope.findCredit()).hasOrder());
+            }
+        } finally {
+            scope.clean();
+        }
+    }
+
+    private static Card getCard(String number, String owner) {
+        Card card = new Card();
+        card.setNumber(number);
+        card.setMonth("01");
+        card.setYear(getCorrectYear());
+        card.setOwner(owner);
+        card.setCvc(getRandomCvc());
+        return card;
+    }
+}
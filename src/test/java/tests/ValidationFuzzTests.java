@@ -0,0 +1,125 @@
+package tests;
+
+import com.codeborne.selenide.logevents.SelenideLogger;
+import data.Card;
+import data.CardFuzzer;
+import data.DataScope;
+import data.DbReset;
+import data.DbResetExtension;
+import data.ValidationOracle;
+import gate.GateSimulatorExtension;
+import io.qameta.allure.Allure;
+import io.qameta.allure.selenide.AllureSelenide;
+import metrics.StepTimingListener;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import page.BrowserPoolExtension;
+import page.CardForm;
+import page.StartPage;
+import shard.ShardCondition;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static data.DataGenerator.getUniqueOwner;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+// Оракул валидации классифицирует fuzz.inputs сгенерированных карт в процессе, через браузер проходят только
+// fuzz.perClass карт каждого класса эквивалентности. Расхождение оракула и формы - упавший динамический тест
+@Tag("fuzz")
+@EnabledIfSystemProperty(named = "fuzz", matches = "true")
+@ExtendWith({ShardCondition.class, DbResetExtension.class, GateSimulatorExtension.class, BrowserPoolExtension.class})
+public class ValidationFuzzTests {
+    private static final long inputs = Long.getLong("fuzz.inputs", 1_000_000);
+    private static final int perClass = Integer.getInteger("fuzz.perClass", 2);
+    private static final long seed = Long.getLong("fuzz.seed", 1);
+    private static final double mutationRate = Double.parseDouble(System.getProperty("fuzz.mutationRate", "0.3"));
+
+    private DataScope scope = new DataScope(getUniqueOwner());
+
+    @BeforeEach
+    void setUp() {
+        SelenideLogger.addListener("allure", new AllureSelenide());
+        SelenideLogger.addListener("timing", new StepTimingListener());
+    }
+
+    @AfterEach
+    void cleanTables() throws SQLException {
+        SelenideLogger.removeListener("allure");
+        SelenideLogger.removeListener("timing");
+        DbReset.afterEach(scope);
+    }
+
+    @TestFactory
+    @DisplayName("Проверки формы оплаты совпадают с оракулом")
+    Stream<DynamicTest> paymentFormShouldMatchOracle() {
+        return compareWithOracle(StartPage.getStartPage().paymentPage());
+    }
+
+    @TestFactory
+    @DisplayName("Проверки формы кредита совпадают с оракулом")
+    Stream<DynamicTest> creditFormShouldMatchOracle() {
+        return compareWithOracle(StartPage.getStartPage().creditPage());
+    }
+
+    // Полностью валидные карты в браузер не отправляются: они создали бы операции, это покрывают PurchaseTests
+    private Stream<DynamicTest> compareWithOracle(CardForm form) {
+        ValidationOracle oracle = new ValidationOracle();
+        Map<Integer, List<Card>> samples = sample(oracle);
+        return samples.entrySet().stream()
+                .filter(entry -> entry.getKey() != 0)
+                .flatMap(entry -> entry.getValue().stream().map(card -> dynamicTest(
+                        ValidationOracle.describe(entry.getKey()) + " <- " + card, () -> {
+                            form.cleanData();
+                            form.fillData(card);
+                            form.waitForInputErrors();
+                            assertEquals(expectedErrors(entry.getKey()), form.getInputErrors(),
+                                    "Оракул и форма расходятся для " + card);
+                        })));
+    }
+
+    // Стратифицированная выборка: не больше perClass карт каждого класса, резервуарная выборка внутри класса
+    private Map<Integer, List<Card>> sample(ValidationOracle oracle) {
+        CardFuzzer fuzzer = new CardFuzzer(seed, mutationRate, YearMonth.now(), scope.getOwner());
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<Integer, List<Card>> samples = new TreeMap<>();
+        Map<Integer, Long> counts = new HashMap<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < inputs; i++) {
+            Card card = fuzzer.next();
+            int verdict = oracle.classify(card);
+            long count = counts.merge(verdict, 1L, Long::sum);
+            List<Card> reservoir = samples.computeIfAbsent(verdict, key -> new ArrayList<>(perClass));
+            if (reservoir.size() < perClass) {
+                reservoir.add(card);
+            } else {
+                long slot = random.nextLong(count);
+                if (slot < perClass) {
+                    reservoir.set((int) slot, card);
+                }
+            }
+        }
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        Allure.step(String.format("Оракул: %d входов за %d мс (%.0f тыс./с), классов эквивалентности: %d",
+                inputs, millis, inputs / (double) millis, counts.size()));
+        StringBuilder table = new StringBuilder();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                .forEach(entry -> table.append(String.format("%10d  %s%n", entry.getValue(), ValidationOracle.describe(entry.getKey()))));
+        Allure.addAttachment("Классы эквивалентности", table.toString());
+        return samples;
+    }
+
+    private static List<String> expectedErrors(int verdict) {
+        List<String> expected = new ArrayList<>();
+        for (int field = ValidationOracle.NUMBER; field <= ValidationOracle.CVC; field++) {
+            expected.add(ValidationOracle.messageOf(verdict, field));
+        }
+        return expected;
+    }
+}
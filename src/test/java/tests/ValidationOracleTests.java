@@ -0,0 +1,89 @@
+package tests;
+
+import data.Card;
+import data.ValidationOracle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static data.ValidationOracle.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Оракул валидации без браузера: сообщения для тех же случаев, что проверяют PurchaseTests и wrong*.cvs
+@Tag("unit")
+public class ValidationOracleTests {
+    private final ValidationOracle oracle = new ValidationOracle(YearMonth.of(2026, 6));
+
+    @Test
+    @DisplayName("Валидная карта проходит все проверки")
+    void shouldAcceptValidCard() {
+        assertEquals(0, oracle.classify(card("12", "27", "Ivan Petrov", "123")));
+    }
+
+    @Test
+    @DisplayName("Пустой месяц - неверный формат")
+    void shouldRejectEmptyMonth() {
+        assertOnly(MONTH, "Неверный формат", card("", "27", "Ivan Petrov", "123"));
+    }
+
+    @Test
+    @DisplayName("Пустой год - неверный формат")
+    void shouldRejectEmptyYear() {
+        assertOnly(YEAR, "Неверный формат", card("12", "", "Ivan Petrov", "123"));
+    }
+
+    @Test
+    @DisplayName("Месяц 22 - неверный срок действия")
+    void shouldRejectMonth22() {
+        assertOnly(MONTH, "Неверно указан срок действия карты", card("22", "27", "Ivan Petrov", "123"));
+    }
+
+    @Test
+    @DisplayName("Прошлый год - срок действия истёк")
+    void shouldRejectPastYear() {
+        assertOnly(YEAR, "Истёк срок действия карты", card("12", "25", "Ivan Petrov", "123"));
+    }
+
+    @Test
+    @DisplayName("Пустой владелец - поле обязательно")
+    void shouldRequireOwner() {
+        assertOnly(OWNER, "Поле обязательно для заполнения", card("12", "27", "", "123"));
+    }
+
+    @Test
+    @DisplayName("Владелец кириллицей - неверный формат")
+    void shouldRejectCyrillicOwner() {
+        assertOnly(OWNER, "Неверный формат", card("12", "27", "Иван Петров", "123"));
+    }
+
+    @Test
+    @DisplayName("CVC из одной или двух цифр - неверный формат")
+    void shouldRejectShortCvc() {
+        assertOnly(CVC, "Неверный формат", card("12", "27", "Ivan Petrov", "1"));
+        assertOnly(CVC, "Неверный формат", card("12", "27", "Ivan Petrov", "12"));
+    }
+
+    private void assertOnly(int field, String message, Card card) {
+        int verdict = oracle.classify(card);
+        for (int other = NUMBER; other <= CVC; other++) {
+            if (other == field) {
+                assertEquals(message, messageOf(verdict, other), fieldNames[other] + " для " + card);
+            } else {
+                assertNull(messageOf(verdict, other), fieldNames[other] + " для " + card);
+            }
+        }
+    }
+
+    private static Card card(String month, String year, String owner, String cvc) {
+        Card card = new Card();
+        card.setNumber("4444 4444 4444 4441");
+        card.setMonth(month);
+        card.setYear(year);
+        card.setOwner(owner);
+        card.setCvc(cvc);
+        return card;
+    }
+}
@@ -0,0 +1,26 @@
+create table if not exists order_entity (
+    id varchar(255) primary key,
+    created timestamp,
+    credit_id varchar(255),
+    payment_id varchar(255)
+);
+
+create table if not exists payment_entity (
+    id varchar(255) primary key,
+    amount int,
+    created timestamp,
+    status varchar(255),
+    transaction_id varchar(255)
+);
+
+create table if not exists credit_request_entity (
+    id varchar(255) primary key,
+    bank_id varchar(255),
+    created timestamp,
+    status varchar(255)
+);
+
+create index if not exists payment_entity_transaction_id_idx on payment_entity (transaction_id);
+create index if not exists credit_request_entity_bank_id_idx on credit_request_entity (bank_id);
+create index if not exists order_entity_payment_id_idx on order_entity (payment_id);
+create index if not exists order_entity_credit_id_idx on order_entity (credit_id);